@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import java.util.Random;
+
+/**
+ * Deterministic input data shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private static final String ASCII_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.-_@+";
+    private static final String NON_ASCII_CHARACTERS = "åäöéüßñЖжЯяλΩ中文日本語한국";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a string that is valid both as an account name and as an issuer, i.e. it does not contain ':' and does
+     * not start or end with whitespace.
+     *
+     * @param length
+     *         the length of the string
+     * @param nonAsciiRatio
+     *         the ratio, 0.0 to 1.0, of characters that should be non-ASCII
+     *
+     * @return the string
+     */
+    public static String text(final int length, final double nonAsciiRatio) {
+        final Random random = new Random(length);
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            final String characters = random.nextDouble() < nonAsciiRatio ? NON_ASCII_CHARACTERS : ASCII_CHARACTERS;
+            builder.append(characters.charAt(random.nextInt(characters.length())));
+        }
+        return builder.toString();
+    }
+
+    public static byte[] bytes(final int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
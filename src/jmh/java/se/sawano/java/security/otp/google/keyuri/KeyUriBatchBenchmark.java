@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.Issuer;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+import se.sawano.java.security.otp.google.keyuri.parameters.Secret;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyUriBatchBenchmark {
+
+    private static final String ISSUER = "Example Co";
+
+    @Param({"1000"})
+    public int accounts;
+
+    private List<Label.AccountName> accountNames;
+    private Secret secret;
+    private KeyUriBatch batch;
+
+    @Setup
+    public void setUp() {
+        accountNames = IntStream.range(0, accounts)
+                                .mapToObj(i -> accountName("user" + i + "@example.com"))
+                                .collect(Collectors.toList());
+        secret = secret(BenchmarkData.bytes(20));
+        batch = KeyUriBatch.totpBatch(ParametersBuilder.totpBuilder()
+                                                       .withAlgorithm(Algorithm.SHA1)
+                                                       .withDigits(Digits.SIX)
+                                                       .withIssuer(Issuer.issuer(ISSUER))
+                                                       .withPeriod(period(Duration.ofSeconds(30)))
+                                                       .createTemplate());
+    }
+
+    @Benchmark
+    public List<String> generate() {
+        return batch.generate(accountNames, accountName -> secret);
+    }
+
+    @Benchmark
+    public int writeTo() throws IOException {
+        final StringBuilder builder = new StringBuilder(128);
+        int length = 0;
+        for (final Label.AccountName accountName : accountNames) {
+            builder.setLength(0);
+            batch.writeTo(accountName, secret, builder);
+            length += builder.length();
+        }
+        return length;
+    }
+
+    /**
+     * Baseline that creates a {@link KeyUri} per account.
+     */
+    @Benchmark
+    public int keyUriPerAccount() {
+        int length = 0;
+        for (final Label.AccountName accountName : accountNames) {
+            final KeyUri keyUri = new KeyUri(new Label(accountName, Label.Issuer.issuer(ISSUER)),
+                                             ParametersBuilder.totpBuilder()
+                                                              .withSecret(secret)
+                                                              .withAlgorithm(Algorithm.SHA1)
+                                                              .withDigits(Digits.SIX)
+                                                              .withIssuer(Issuer.issuer(ISSUER))
+                                                              .withPeriod(period(Duration.ofSeconds(30)))
+                                                              .create());
+            length += keyUri.toURI().toString().length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.Issuer;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.Label.Issuer.issuer;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyUriBenchmark {
+
+    private static final String ISSUER = "Example Co";
+
+    @Param({"TOTP", "HOTP"})
+    public Type type;
+
+    @Param({"10", "50", "300"})
+    public int length;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nonAsciiRatio;
+
+    @Param({"20"})
+    public int secretSize;
+
+    private String accountName;
+    private byte[] secret;
+    private KeyUri keyUri;
+
+    @Setup
+    public void setUp() {
+        accountName = BenchmarkData.text(length, nonAsciiRatio);
+        secret = BenchmarkData.bytes(secretSize);
+        keyUri = keyUri(type, accountName, secret);
+    }
+
+    @Benchmark
+    public URI toURI() {
+        return keyUri.toURI();
+    }
+
+    @Benchmark
+    public String toUriString() {
+        return keyUri.toUriString();
+    }
+
+    /**
+     * Creates and renders a new key URI, with a new label and new parameters, so nothing is cached yet.
+     */
+    @Benchmark
+    public URI toURIFirstTime() {
+        return keyUri(type, accountName, secret).toURI();
+    }
+
+    /**
+     * Creates and renders a new key URI, with a new label and new parameters, so nothing is cached yet, without
+     * creating a {@link URI}.
+     */
+    @Benchmark
+    public String toUriStringFirstTime() {
+        return keyUri(type, accountName, secret).toUriString();
+    }
+
+    @Benchmark
+    public CharBuffer writeToCharBuffer(final Buffer buffer) {
+        buffer.value.clear();
+        return keyUri.writeTo(buffer.value);
+    }
+
+    @Benchmark
+    public ByteBuffer writeAsciiToByteBuffer(final Buffer buffer) {
+        buffer.bytes.clear();
+        return keyUri.writeAsciiTo(buffer.bytes);
+    }
+
+    /**
+     * Baseline for {@link #writeAsciiToByteBuffer(Buffer)}.
+     */
+    @Benchmark
+    public byte[] toURIBytes() {
+        return keyUri.toURI().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        final CharBuffer value = CharBuffer.allocate(4096);
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(4096);
+    }
+
+    static KeyUri keyUri(final Type type, final String accountName, final int secretSize) {
+        return keyUri(type, accountName, BenchmarkData.bytes(secretSize));
+    }
+
+    private static KeyUri keyUri(final Type type, final String accountName, final byte[] secret) {
+        final Label label = new Label(accountName(accountName), issuer(ISSUER));
+        switch (type) {
+            case TOTP:
+                return new KeyUri(label, ParametersBuilder.totpBuilder()
+                                                          .withSecret(secret(secret))
+                                                          .withAlgorithm(Algorithm.SHA1)
+                                                          .withIssuer(Issuer.issuer(ISSUER))
+                                                          .withDigits(Digits.SIX)
+                                                          .withPeriod(period(Duration.ofSeconds(30)))
+                                                          .create());
+            case HOTP:
+                return new KeyUri(label, ParametersBuilder.hotpBuilder()
+                                                          .withSecret(secret(secret))
+                                                          .withAlgorithm(Algorithm.SHA1)
+                                                          .withIssuer(Issuer.issuer(ISSUER))
+                                                          .withDigits(Digits.SIX)
+                                                          .withCounter(counter(42))
+                                                          .create());
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import se.sawano.java.security.otp.google.keyuri.parameters.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+/**
+ * Creates and renders 1M key URIs, half TOTP and half HOTP, per invocation. The labels and parameters are created up
+ * front and their strings are cached, so what is left is the work and allocation of {@link KeyUri} itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyUriConstructionBenchmark {
+
+    private static final int COUNT = 1_000_000;
+    private static final int ACCOUNTS = 1024;
+    private static final String ISSUER = "Example Co";
+
+    private final Label[] labels = new Label[ACCOUNTS];
+    private TOTPParameters totpParameters;
+    private HOTPParameters hotpParameters;
+    private final StringBuilder builder = new StringBuilder(256);
+
+    @Setup
+    public void setUp() {
+        final Label.Issuer issuer = Label.Issuer.issuer(ISSUER);
+        for (int i = 0; i < ACCOUNTS; ++i) {
+            labels[i] = new Label(accountName("user" + i + "@example.com"), issuer);
+        }
+        totpParameters = ParametersBuilder.totpBuilder()
+                                          .withSecret(secret(BenchmarkData.bytes(20)))
+                                          .withAlgorithm(Algorithm.SHA1)
+                                          .withIssuer(Issuer.issuer(ISSUER))
+                                          .withDigits(Digits.SIX)
+                                          .withPeriod(period(Duration.ofSeconds(30)))
+                                          .create();
+        hotpParameters = ParametersBuilder.hotpBuilder()
+                                          .withSecret(secret(BenchmarkData.bytes(20)))
+                                          .withAlgorithm(Algorithm.SHA1)
+                                          .withIssuer(Issuer.issuer(ISSUER))
+                                          .withDigits(Digits.SIX)
+                                          .withCounter(counter(42))
+                                          .create();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void construct(final Blackhole blackhole) {
+        for (int i = 0; i < COUNT; ++i) {
+            blackhole.consume(keyUri(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public int constructAndRender() throws IOException {
+        int length = 0;
+        for (int i = 0; i < COUNT; ++i) {
+            builder.setLength(0);
+            keyUri(i).writeTo(builder);
+            length += builder.length();
+        }
+        return length;
+    }
+
+    private KeyUri keyUri(final int i) {
+        final Label label = labels[i & (ACCOUNTS - 1)];
+        return (i & 1) == 0 ? new KeyUri(label, totpParameters) : new KeyUri(label, hotpParameters);
+    }
+}
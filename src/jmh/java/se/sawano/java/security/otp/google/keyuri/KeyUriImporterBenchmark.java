@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyUriImporterBenchmark {
+
+    @Param({"100000"})
+    public int lines;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("key-uris", ".txt");
+        try (final Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            for (int i = 0; i < lines; ++i) {
+                final Type type = i % 2 == 0 ? Type.TOTP : Type.HOTP;
+                writer.write(KeyUriBenchmark.keyUri(type, "user" + i + "@example.com", 20).toURI().toString());
+                writer.write('\n');
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long importFile() throws IOException {
+        final LongAdder count = new LongAdder();
+        KeyUriImporter.keyUriImporter().importFile(file, new KeyUriImporter.Listener() {
+            @Override
+            public void onKeyUri(final long lineNumber, final KeyUri keyUri) {
+                count.increment();
+            }
+
+            @Override
+            public void onError(final long lineNumber, final IllegalArgumentException error) {
+                throw error;
+            }
+        });
+        return count.sum();
+    }
+
+    /**
+     * Baseline that reads and parses one line at a time on a single thread.
+     */
+    @Benchmark
+    public long readLineByLine() throws IOException {
+        long count = 0;
+        try (final BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                KeyUriParser.parse(line);
+                ++count;
+            }
+        }
+        return count;
+    }
+}
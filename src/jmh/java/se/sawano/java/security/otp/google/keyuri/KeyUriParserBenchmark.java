@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.apache.commons.codec.binary.Base32;
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.Issuer;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyUriParserBenchmark {
+
+    @Param({"TOTP", "HOTP"})
+    public Type type;
+
+    @Param({"10", "50", "300"})
+    public int length;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nonAsciiRatio;
+
+    private String uri;
+    private byte[] uriBytes;
+
+    @Setup
+    public void setUp() {
+        uri = KeyUriBenchmark.keyUri(type, BenchmarkData.text(length, nonAsciiRatio), 20).toURI().toString();
+        uriBytes = uri.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public KeyUri parse() {
+        return KeyUriParser.parse(uri);
+    }
+
+    @Benchmark
+    public KeyUri parseBytes() {
+        return KeyUriParser.parse(uriBytes);
+    }
+
+    /**
+     * Baseline that goes through {@link URI} and splits the query.
+     */
+    @Benchmark
+    public KeyUri parseNaive() {
+        final URI parsed = URI.create(uri);
+        final String path = parsed.getPath().substring(1);
+        final int separator = path.indexOf(':');
+        final Label label = new Label(accountName(path.substring(0, separator)), Label.Issuer.issuer(path.substring(separator + 1)));
+        String secret = null;
+        String issuer = null;
+        String algorithm = null;
+        String digits = null;
+        String counter = null;
+        String period = null;
+        for (final String pair : parsed.getQuery().split("&")) {
+            final String[] nameAndValue = pair.split("=", 2);
+            switch (nameAndValue[0]) {
+                case "secret":
+                    secret = nameAndValue[1];
+                    break;
+                case "issuer":
+                    issuer = nameAndValue[1];
+                    break;
+                case "algorithm":
+                    algorithm = nameAndValue[1];
+                    break;
+                case "digits":
+                    digits = nameAndValue[1];
+                    break;
+                case "counter":
+                    counter = nameAndValue[1];
+                    break;
+                case "period":
+                    period = nameAndValue[1];
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (counter == null) {
+            return new KeyUri(label, ParametersBuilder.totpBuilder()
+                                                      .withSecret(secret(new Base32().decode(secret)))
+                                                      .withIssuer(Issuer.issuer(issuer))
+                                                      .withAlgorithm(Algorithm.valueOf(algorithm))
+                                                      .withDigits("8".equals(digits) ? Digits.EIGHT : Digits.SIX)
+                                                      .withPeriod(period(Duration.ofSeconds(Long.parseLong(period))))
+                                                      .create());
+        }
+        return new KeyUri(label, ParametersBuilder.hotpBuilder()
+                                                  .withSecret(secret(new Base32().decode(secret)))
+                                                  .withIssuer(Issuer.issuer(issuer))
+                                                  .withAlgorithm(Algorithm.valueOf(algorithm))
+                                                  .withDigits("8".equals(digits) ? Digits.EIGHT : Digits.SIX)
+                                                  .withCounter(counter(Long.parseLong(counter)))
+                                                  .create());
+    }
+}
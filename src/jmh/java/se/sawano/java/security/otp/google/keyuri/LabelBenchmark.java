@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.Label.Issuer.issuer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LabelBenchmark {
+
+    @Param({"10", "50", "300"})
+    public int length;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nonAsciiRatio;
+
+    private Label label;
+    private Label.AccountName accountName;
+    private Label.Issuer issuer;
+
+    @Setup
+    public void setUp() {
+        accountName = accountName(BenchmarkData.text(length, nonAsciiRatio));
+        issuer = issuer("Example Co");
+        label = new Label(accountName, issuer);
+    }
+
+    /**
+     * Renders a label again, e.g. for a refreshed QR code.
+     */
+    @Benchmark
+    public String asUriString() {
+        return label.asUriString();
+    }
+
+    /**
+     * Renders a new label, which is not cached yet.
+     */
+    @Benchmark
+    public String asUriStringFirstTime() {
+        return new Label(accountName, issuer).asUriString();
+    }
+
+    /**
+     * Writes a new label into a reused buffer, as in a bulk export where each label is only rendered once.
+     */
+    @Benchmark
+    public StringBuilder appendUriStringFirstTime(final Buffer buffer) throws IOException {
+        buffer.value.setLength(0);
+        new Label(accountName, issuer).appendUriString(buffer.value);
+        return buffer.value;
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        final StringBuilder value = new StringBuilder(4096);
+    }
+}
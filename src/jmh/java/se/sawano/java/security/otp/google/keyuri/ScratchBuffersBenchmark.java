@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScratchBuffersBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    @Param({"10", "50"})
+    public int length;
+
+    private KeyUri keyUri;
+
+    @Setup
+    public void setUp() {
+        ScratchBuffers.setEnabled(pooled);
+        keyUri = KeyUriBenchmark.keyUri(Type.TOTP, BenchmarkData.text(length, 0.1), 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ScratchBuffers.setEnabled(false);
+    }
+
+    @Benchmark
+    public URI toURI() {
+        return keyUri.toURI();
+    }
+
+    /**
+     * A label is rendered once per key URI when it is created from a request, so this measures the first, uncached,
+     * rendering.
+     */
+    @Benchmark
+    public String labelAsUriString() {
+        return new Label(Label.AccountName.accountName(keyUri.label().accountName().value()),
+                         keyUri.label().issuer().get()).asUriString();
+    }
+}
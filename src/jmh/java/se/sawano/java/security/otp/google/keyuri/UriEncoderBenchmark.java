@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriEncoderBenchmark {
+
+    @Param({"10", "50", "100", "300"})
+    public int length;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double nonAsciiRatio;
+
+    private String value;
+    private String safeValue;
+    private PercentEscaper escaper;
+
+    @Setup
+    public void setUp() {
+        escaper = new PercentEscaper("-._~", false);
+        value = BenchmarkData.text(length, nonAsciiRatio);
+        safeValue = BenchmarkData.text(length, 0.0).replaceAll("[^A-Za-z0-9._~-]", "-");
+    }
+
+    /**
+     * Scans an e-mail style account name that only has safe characters.
+     */
+    @Benchmark
+    public int nextEscapeIndex() {
+        return escaper.nextEscapeIndex(safeValue, 0, safeValue.length());
+    }
+
+    @Benchmark
+    public String encode() {
+        return UriEncoder.encode(value);
+    }
+
+    /**
+     * Baseline that creates a new escaper per invocation, which is how {@link UriEncoder} used to work.
+     */
+    @Benchmark
+    public String encodeWithNewEscaper() {
+        return new PercentEscaper("-._~", false).escape(value);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotpVerifierBenchmark {
+
+    @Param({"1", "20", "50"})
+    public int window;
+
+    private HotpVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        verifier = HotpVerifier.hotpVerifier(ParametersBuilder.hotpBuilder()
+                                                              .withSecret(secret(BenchmarkData.bytes(20)))
+                                                              .withCounter(counter(0))
+                                                              .create(), window);
+    }
+
+    /**
+     * Verifies a code that does not match, which is as expensive as one that matches.
+     */
+    @Benchmark
+    public OptionalLong verify() {
+        return verifier.verify(1);
+    }
+}
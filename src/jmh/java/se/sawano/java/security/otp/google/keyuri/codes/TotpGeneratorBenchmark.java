@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotpGeneratorBenchmark {
+
+    @Param({"SHA1", "SHA256", "SHA512"})
+    public Algorithm algorithm;
+
+    private TotpGenerator generator;
+    private TotpGenerator otherGenerator;
+    private long epochSecond;
+
+    @Setup
+    public void setUp() {
+        generator = generator(20);
+        otherGenerator = generator(32);
+        epochSecond = 1234567890L;
+    }
+
+    private TotpGenerator generator(final int secretSize) {
+        return TotpGenerator.totpGenerator(ParametersBuilder.totpBuilder()
+                                                            .withSecret(secret(BenchmarkData.bytes(secretSize)))
+                                                            .withAlgorithm(algorithm)
+                                                            .withPeriod(period(Duration.ofSeconds(30)))
+                                                            .create());
+    }
+
+    @Benchmark
+    public int generate() {
+        return generator.generate(epochSecond);
+    }
+
+    /**
+     * Alternates between two keys so that the per-thread {@code Mac} is re-initialized on every call, as when
+     * verifying codes for many users.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int generateAlternatingKeys() {
+        return generator.generate(epochSecond) + otherGenerator.generate(epochSecond);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotpVerifierBenchmark {
+
+    private static final long NOW = 1_500_000_000L;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"0", "1", "2"})
+    public int skew;
+
+    private TotpVerifier verifier;
+    private List<TOTPParameters> batch;
+    private int[] codes;
+
+    @Setup
+    public void setUp() {
+        final TOTPParameters parameters = parameters();
+        verifier = TotpVerifier.totpVerifier(parameters, skew);
+        batch = new ArrayList<>(BATCH_SIZE);
+        codes = new int[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            batch.add(parameters());
+            codes[i] = i;
+        }
+    }
+
+    /**
+     * Verifies a code that does not match, which is as expensive as one that matches.
+     */
+    @Benchmark
+    public boolean verify() {
+        return verifier.verify(1, NOW);
+    }
+
+    /**
+     * Verifies one code per account for {@value #BATCH_SIZE} accounts.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public boolean[] verifyAll() {
+        return TotpVerifier.verifyAll(batch, codes, skew, NOW);
+    }
+
+    private static TOTPParameters parameters() {
+        return ParametersBuilder.totpBuilder()
+                                .withSecret(secret(BenchmarkData.bytes(20)))
+                                .withPeriod(period(Duration.ofSeconds(30)))
+                                .create();
+    }
+}
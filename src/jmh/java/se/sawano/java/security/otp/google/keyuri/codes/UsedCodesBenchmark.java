@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsedCodesBenchmark {
+
+    private static final long NOW = 1_500_000_000L;
+    private static final int CAPACITY = 4_500_000;
+    /**
+     * Codes stay used for two periods of 30 seconds, so this rate keeps the capacity in use without exceeding it.
+     */
+    private static final long CODES_PER_SECOND = CAPACITY / 60;
+
+    private final AtomicLong count = new AtomicLong();
+    private UsedCodes usedCodes;
+
+    @Setup
+    public void setUp() {
+        usedCodes = UsedCodes.usedCodes(CAPACITY);
+    }
+
+    /**
+     * Marks the codes of random accounts as used, run with e.g. {@code -t 4} to measure contention. The clock advances
+     * with the number of codes so that old codes expire as new ones are added.
+     */
+    @Benchmark
+    public boolean markUsed() {
+        final long now = NOW + count.getAndIncrement() / CODES_PER_SECOND;
+        final long timeStep = now / 30;
+        return usedCodes.markUsed(ThreadLocalRandom.current().nextLong(), timeStep, (timeStep + 2) * 30, now);
+    }
+}
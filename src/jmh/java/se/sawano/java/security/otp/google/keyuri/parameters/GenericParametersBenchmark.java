@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericParametersBenchmark {
+
+    @Param({"TOTP", "HOTP"})
+    public String type;
+
+    @Param({"10", "20", "32", "64"})
+    public int secretSize;
+
+    private Secret secret;
+    private List<Parameter> optionalParameters;
+    private GenericParameters parameters;
+
+    @Setup
+    public void setUp() {
+        optionalParameters = "TOTP".equals(type)
+                ? asList(Algorithm.SHA1, Digits.SIX, Issuer.issuer("Example Co"), Period.period(Duration.ofSeconds(30)))
+                : asList(Algorithm.SHA1, Digits.SIX, Issuer.issuer("Example Co"), Counter.counter(42));
+        secret = Secret.secret(BenchmarkData.bytes(secretSize));
+        parameters = new GenericParameters(secret, optionalParameters);
+    }
+
+    @Benchmark
+    public String asUriString() {
+        return parameters.asUriString();
+    }
+
+    /**
+     * The allocation rate of this benchmark is the footprint of an instance plus any garbage created while creating it.
+     */
+    @Benchmark
+    public GenericParameters create() {
+        return new GenericParameters(secret, optionalParameters);
+    }
+
+    @Benchmark
+    public Optional<Issuer> issuer() {
+        return parameters.issuer();
+    }
+
+    @Benchmark
+    public Optional<Period> period() {
+        return parameters.period();
+    }
+
+    /**
+     * Measures the first invocation, i.e. when the query is not yet cached, including the creation of the parameters.
+     */
+    @Benchmark
+    public String asUriStringFirstTime() {
+        return new GenericParameters(secret, optionalParameters).asUriString();
+    }
+
+    /**
+     * Writes new parameters into a reused buffer, as in a bulk export where each query is only rendered once.
+     */
+    @Benchmark
+    public StringBuilder appendUriStringFirstTime(final Buffer buffer) throws IOException {
+        buffer.value.setLength(0);
+        new GenericParameters(secret, optionalParameters).appendUriString(buffer.value);
+        return buffer.value;
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        final StringBuilder value = new StringBuilder(4096);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IssuerBenchmark {
+
+    @Param({"Example Co", "Exempel Företag AB"})
+    public String name;
+
+    /**
+     * Creates an issuer and its parameter pair as each key URI used to.
+     */
+    @Benchmark
+    public String issuerParameterPair() {
+        return Issuer.issuer(name).parameterPair();
+    }
+
+    @Benchmark
+    public String cachedParameterPair() {
+        return Issuer.cached(name).parameterPair();
+    }
+}
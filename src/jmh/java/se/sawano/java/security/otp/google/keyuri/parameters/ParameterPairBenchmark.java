@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterPairBenchmark {
+
+    private Parameter[] parameters;
+    private StringBuilder builder;
+
+    @Setup
+    public void setUp() {
+        parameters = new Parameter[]{
+                Algorithm.SHA256,
+                Digits.EIGHT,
+                Period.period(Duration.ofSeconds(30)),
+                Counter.counter(42),
+                Issuer.issuer("Example Co"),
+                Secret.secret(BenchmarkData.bytes(20))
+        };
+        builder = new StringBuilder(256);
+    }
+
+    /**
+     * The pairs of the parameters of a stored key URI, rendered again.
+     */
+    @Benchmark
+    public void parameterPair(final Blackhole blackhole) {
+        for (final Parameter parameter : parameters) {
+            blackhole.consume(parameter.parameterPair());
+        }
+    }
+
+    @Benchmark
+    public StringBuilder appendParameterPair() throws Exception {
+        builder.setLength(0);
+        for (final Parameter parameter : parameters) {
+            parameter.appendParameterPair(builder);
+        }
+        return builder;
+    }
+}
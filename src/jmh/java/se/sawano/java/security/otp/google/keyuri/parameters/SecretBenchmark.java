@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.apache.commons.codec.binary.Base32;
+import org.openjdk.jmh.annotations.*;
+import se.sawano.java.security.otp.google.keyuri.BenchmarkData;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretBenchmark {
+
+    @Param({"10", "20", "32", "64"})
+    public int size;
+
+    private byte[] value;
+    private Secret secret;
+    private Secret offHeapSecret;
+    private byte[] key;
+    private StringBuilder builder;
+
+    @Setup
+    public void setUp() {
+        value = BenchmarkData.bytes(size);
+        secret = Secret.secret(value);
+        offHeapSecret = Secret.offHeap(value);
+        key = new byte[size];
+        builder = new StringBuilder(128);
+    }
+
+    @TearDown
+    public void tearDown() {
+        offHeapSecret.close();
+    }
+
+    @Benchmark
+    public Secret secret() {
+        return Secret.secret(value);
+    }
+
+    /**
+     * The encoding that {@link Secret} used before, for comparison.
+     */
+    @Benchmark
+    public String commonsCodec() {
+        return new Base32(Secret.BASE32_PADDING.getBytes()[0]).encodeToString(value).replace(Secret.BASE32_PADDING, "");
+    }
+
+    @Benchmark
+    public byte[] keyBytes() {
+        return secret.keyBytes();
+    }
+
+    @Benchmark
+    public byte[] writeKeyBytes() {
+        secret.writeKeyBytes(key);
+        return key;
+    }
+
+    /**
+     * The decoding that had to be used before, for comparison.
+     */
+    @Benchmark
+    public byte[] commonsCodecDecode() {
+        return new Base32().decode(secret.value());
+    }
+
+    @Benchmark
+    public void offHeapCreateAndDestroy() {
+        Secret.offHeap(value).close();
+    }
+
+    @Benchmark
+    public StringBuilder appendParameterPair() throws Exception {
+        builder.setLength(0);
+        secret.appendParameterPair(builder);
+        return builder;
+    }
+
+    @Benchmark
+    public StringBuilder offHeapAppendParameterPair() throws Exception {
+        builder.setLength(0);
+        offHeapSecret.appendParameterPair(builder);
+        return builder;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretGenerationBenchmark {
+
+    private static final int COUNT = 1000;
+
+    @Param({"SHA1", "SHA512"})
+    public Algorithm algorithm;
+
+    /**
+     * One secret at a time, i.e. one call to {@code SecureRandom.nextBytes} per secret.
+     */
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public List<Secret> generateOneAtATime() {
+        final List<Secret> secrets = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; ++i) {
+            secrets.add(Secret.generate(algorithm));
+        }
+        return secrets;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public List<Secret> generateBatch() {
+        return Secret.generate(COUNT, algorithm);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * An {@link Appendable} that writes each appended character as a single US-ASCII byte. It is used to write URI
+ * encoded output, which only ever contains US-ASCII characters, to byte oriented sinks without creating any strings.
+ */
+abstract class AsciiAppendable implements Appendable {
+
+    static AsciiAppendable to(final ByteBuffer buffer) {
+        notNull(buffer);
+
+        return new AsciiAppendable() {
+            @Override
+            void write(final byte b) {
+                buffer.put(b);
+            }
+        };
+    }
+
+    static AsciiAppendable to(final OutputStream out) {
+        notNull(out);
+
+        return new AsciiAppendable() {
+            @Override
+            void write(final byte b) throws IOException {
+                out.write(b);
+            }
+        };
+    }
+
+    abstract void write(byte b) throws IOException;
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) throws IOException {
+        for (int i = start; i < end; ++i) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        if (c > 0x7F) {
+            throw new IllegalArgumentException("Not a US-ASCII character: " + (int) c);
+        }
+        write((byte) c);
+        return this;
+    }
+}
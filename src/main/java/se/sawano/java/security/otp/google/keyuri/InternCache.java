@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A small cache of shared instances that are created from a string, e.g. the issuers of {@link
+ * Label.Issuer#cached(String)} and {@link se.sawano.java.security.otp.google.keyuri.parameters.Issuer#cached(String)}.
+ * Values are trimmed before they are looked up, so values that only differ in leading or trailing whitespace share an
+ * instance.
+ * <p>
+ * The cache has {@value #SIZE} slots and a value can only be kept in one of the two slots its hash points to. A value
+ * that is not cached takes an empty one of them, or else replaces one of them, so the cache can never be filled for
+ * good: values that are no longer used are replaced by the ones that are. Lookups neither lock nor allocate, except
+ * for trimming a value that has leading or trailing whitespace.
+ * </p>
+ *
+ * @param <T>
+ *         the type of the instances
+ */
+public final class InternCache<T> {
+
+    /**
+     * The number of slots, and so the max number of cached instances.
+     */
+    public static final int SIZE = 1024;
+
+    private final AtomicReferenceArray<Entry<T>> slots = new AtomicReferenceArray<>(SIZE);
+    private final Function<String, T> factory;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param factory
+     *         creates an instance from a trimmed value, and validates the value
+     */
+    public InternCache(final Function<String, T> factory) {
+        notNull(factory);
+
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the shared instance of the given value, which is created if it is not cached.
+     *
+     * @param value
+     *         the value, which is trimmed
+     *
+     * @return the instance
+     */
+    public T get(final String value) {
+        notNull(value);
+
+        final String key = value.trim();
+        final int hash = spread(key.hashCode());
+        final int first = hash & (SIZE - 1);
+        final int second = (first + 1) & (SIZE - 1);
+        final Entry<T> firstEntry = slots.get(first);
+        if (firstEntry != null && firstEntry.key.equals(key)) {
+            return firstEntry.value;
+        }
+        final Entry<T> secondEntry = slots.get(second);
+        if (secondEntry != null && secondEntry.key.equals(key)) {
+            return secondEntry.value;
+        }
+
+        final T instance = factory.apply(key);
+        // Racing threads may each store an instance, the last one wins and the others are only used once
+        final int slot = firstEntry == null ? first
+                         : secondEntry == null ? second
+                           : (hash & SIZE) == 0 ? first : second;
+        slots.set(slot, new Entry<>(key, instance));
+        return instance;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry<T> {
+
+        private final String key;
+        private final T value;
+
+        private Entry(final String key, final T value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -20,12 +20,15 @@ import se.sawano.java.security.otp.google.keyuri.parameters.HOTPParameters;
 import se.sawano.java.security.otp.google.keyuri.parameters.Issuer;
 import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.Optional;
-import java.util.function.Consumer;
-import java.util.function.Function;
 
-import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 /**
@@ -40,7 +43,14 @@ public final class KeyUri {
 
     private final Type type;
     private final Label label;
-    private final Either<TOTPParameters, HOTPParameters> either;
+    /*
+     * Exactly one of the parameters is set, as given by the type. Plain fields dispatched on the type instead of an
+     * Either, so that neither construction nor rendering creates Optionals or functional objects.
+     */
+    private final TOTPParameters totpParameters;
+    private final HOTPParameters hotpParameters;
+    private String uriString;
+    private volatile URI uri;
 
     public KeyUri(final Label label, final TOTPParameters parameters) {
         notNull(label);
@@ -48,7 +58,8 @@ public final class KeyUri {
 
         this.type = Type.TOTP;
         this.label = label;
-        either = Either.left(parameters);
+        this.totpParameters = parameters;
+        this.hotpParameters = null;
 
         validateIssuer();
     }
@@ -59,21 +70,137 @@ public final class KeyUri {
 
         this.type = Type.HOTP;
         this.label = label;
-        either = Either.right(parameters);
+        this.totpParameters = null;
+        this.hotpParameters = parameters;
 
         validateIssuer();
     }
 
+    /**
+     * Returns the key URI. The URI is created on first use and then cached, unless the secret is off-heap. Unlike the
+     * cached string, the cached {@link URI} is published through a volatile field since its parsed state is not held in
+     * final fields.
+     *
+     * @return the key URI
+     */
     public URI toURI() {
-        return URI.create(OTPAUTH_SCHEME + type.value() + "/" + label.asUriString() + parametersUriString());
+        URI result = uri;
+        if (result == null) {
+            result = URI.create(toUriString());
+            if (!isOffHeap()) {
+                uri = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the same string as {@code toURI().toString()} without creating a {@link URI}. The string is created on
+     * first use and then cached, unless the secret is off-heap.
+     *
+     * @return the key URI as a string
+     */
+    public String toUriString() {
+        String result = uriString;
+        if (result == null) {
+            result = ScratchBuffers.render(128, this::writeTo);
+            if (!isOffHeap()) {
+                uriString = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the same URI as {@link #toURI()} to the given appendable. The URI is written piece by piece so no
+     * intermediate strings are created, which makes it possible to reuse a single buffer for many key URIs.
+     *
+     * @param out
+     *         the appendable to write the URI to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void writeTo(final Appendable out) throws IOException {
+        notNull(out);
+
+        appendUriPrefix(type, out);
+        label.appendUriString(out);
+        appendParametersUriString(out);
+    }
+
+    /**
+     * Writes the part of a key URI that precedes the label, e.g. {@code otpauth://totp/}.
+     */
+    static void appendUriPrefix(final Type type, final Appendable out) throws IOException {
+        out.append(OTPAUTH_SCHEME).append(type.value()).append('/');
+    }
+
+    /**
+     * Writes the same URI as {@link #toURI()} to the given buffer, starting at its current position.
+     *
+     * @param buffer
+     *         the buffer to write the URI to
+     *
+     * @return the given buffer
+     *
+     * @throws BufferOverflowException
+     *         if there is insufficient space in the buffer
+     * @see #writeTo(Appendable)
+     */
+    public CharBuffer writeTo(final CharBuffer buffer) {
+        notNull(buffer);
+
+        try {
+            writeTo((Appendable) buffer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the same URI as {@link #toURI()} to the given buffer, starting at its current position, as US-ASCII
+     * bytes. Since the URI is percent-encoded the bytes are also the UTF-8 representation of the URI.
+     *
+     * @param buffer
+     *         the buffer to write the URI to
+     *
+     * @return the given buffer
+     *
+     * @throws BufferOverflowException
+     *         if there is insufficient space in the buffer
+     */
+    public ByteBuffer writeAsciiTo(final ByteBuffer buffer) {
+        try {
+            writeTo(AsciiAppendable.to(buffer));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the same URI as {@link #toURI()} to the given stream as US-ASCII bytes. Since the URI is percent-encoded
+     * the bytes are also the UTF-8 representation of the URI. The bytes are written one at a time so the stream
+     * should be buffered.
+     *
+     * @param out
+     *         the stream to write the URI to
+     *
+     * @throws IOException
+     *         if the stream fails
+     */
+    public void writeAsciiTo(final OutputStream out) throws IOException {
+        writeTo(AsciiAppendable.to(out));
     }
 
     public Optional<TOTPParameters> totpParameters() {
-        return either.left();
+        return Optional.ofNullable(totpParameters);
     }
 
     public Optional<HOTPParameters> hotpParameters() {
-        return either.right();
+        return Optional.ofNullable(hotpParameters);
     }
 
     public Type type() {
@@ -85,72 +212,42 @@ public final class KeyUri {
     }
 
     private void validateIssuer() {
-        label.issuer()
-             .map(labelIssuer -> (Consumer<Issuer>) parameterIssuer -> verifyEqual(labelIssuer, parameterIssuer))
-             .ifPresent(issuerConsumer -> issuer().ifPresent(issuerConsumer));
+        // The Optionals are fields of the label and parameters, so this does not allocate
+        final Optional<Label.Issuer> labelIssuer = label.issuer();
+        if (!labelIssuer.isPresent()) {
+            return;
+        }
+        final Optional<Issuer> parameterIssuer = issuer();
+        if (parameterIssuer.isPresent()) {
+            verifyEqual(labelIssuer.get(), parameterIssuer.get());
+        }
     }
 
     private void verifyEqual(final Label.Issuer issuer, final Issuer parameterIssuer) {
-        isTrue(issuer.value().equals(parameterIssuer.value()), "Issuer must be same in Label and parameters");
+        // Not Validate.isTrue since its varargs array is allocated on every call unless the JIT removes it
+        if (!issuer.value().equals(parameterIssuer.value())) {
+            throw new IllegalArgumentException("Issuer must be same in Label and parameters");
+        }
     }
 
-    private Optional<Issuer> issuer() {
-        return either.map(TOTPParameters::issuer, HOTPParameters::issuer);
+    /**
+     * The key of an off-heap secret must not be kept on the heap, and the secret may be destroyed later.
+     */
+    private boolean isOffHeap() {
+        return (type == Type.TOTP ? totpParameters.secret() : hotpParameters.secret()).isOffHeap();
     }
 
-    private String parametersUriString() {
-        return either.map(TOTPParameters::asUriString, HOTPParameters::asUriString);
+    private Optional<Issuer> issuer() {
+        return type == Type.TOTP ? totpParameters.issuer() : hotpParameters.issuer();
     }
 
-    private static abstract class Either<L, R> {
-
-        public static <L, R> Either<L, R> left(final L value) {
-            notNull(value);
-            return new Either<L, R>() {
-
-                @Override
-                public <T> T map(final Function<L, T> leftFunction, final Function<R, T> rightFunction) {
-                    return leftFunction.apply(value);
-                }
-
-                @Override
-                public Optional<L> left() {
-                    return Optional.of(value);
-                }
-
-                @Override
-                public Optional<R> right() {
-                    return Optional.empty();
-                }
-            };
+    private void appendParametersUriString(final Appendable out) throws IOException {
+        if (type == Type.TOTP) {
+            totpParameters.appendUriString(out);
         }
-
-        public static <L, R> Either<L, R> right(final R value) {
-            notNull(value);
-            return new Either<L, R>() {
-
-                @Override
-                public <T> T map(final Function<L, T> leftFunction, final Function<R, T> rightFunction) {
-                    return rightFunction.apply(value);
-                }
-
-                @Override
-                public Optional<L> left() {
-                    return Optional.empty();
-                }
-
-                @Override
-                public Optional<R> right() {
-                    return Optional.of(value);
-                }
-            };
+        else {
+            hotpParameters.appendUriString(out);
         }
-
-        public abstract <T> T map(final Function<L, T> leftFunction, final Function<R, T> rightFunction);
-
-        public abstract Optional<L> left();
-
-        public abstract Optional<R> right();
     }
 
 }
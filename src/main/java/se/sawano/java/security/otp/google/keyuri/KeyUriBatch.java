@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.HOTPParameters;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersTemplate;
+import se.sawano.java.security.otp.google.keyuri.parameters.Secret;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Creates key URIs for many accounts that share the same parameters, e.g. when enrolling all users of a service.
+ * <p>
+ * Everything that is shared, i.e. the issuer part of the label and all parameters except the secret, is encoded once
+ * when the batch is created. Only the account name and the secret are encoded for each key URI. If the template has an
+ * issuer it is also used as the issuer of each label.
+ * </p>
+ * <p>
+ * The key URIs are identical to the ones {@link KeyUri#toURI()} creates for the same label and parameters, since the
+ * scheme and the label are written by the same code as for a {@link KeyUri}.
+ * </p>
+ */
+public final class KeyUriBatch {
+
+    public static KeyUriBatch totpBatch(final ParametersTemplate<TOTPParameters> template) {
+        return new KeyUriBatch(Type.TOTP, template);
+    }
+
+    public static KeyUriBatch hotpBatch(final ParametersTemplate<HOTPParameters> template) {
+        return new KeyUriBatch(Type.HOTP, template);
+    }
+
+    private final Type type;
+    private final ParametersTemplate<?> template;
+    /**
+     * The issuer of each label, URI encoded once, see {@link Label.Issuer#cached(String)}.
+     */
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    private final Optional<Label.Issuer> labelIssuer;
+
+    private KeyUriBatch(final Type type, final ParametersTemplate<?> template) {
+        notNull(template);
+
+        this.type = type;
+        this.template = template;
+        this.labelIssuer = template.issuer().map(issuer -> Label.Issuer.cached(issuer.value()));
+    }
+
+    /**
+     * Creates the key URI for each account name, in iteration order.
+     *
+     * @param accountNames
+     *         the account names
+     * @param secrets
+     *         provides the secret of each account
+     *
+     * @return the key URIs
+     */
+    public List<String> generate(final Iterable<Label.AccountName> accountNames,
+                                 final Function<? super Label.AccountName, Secret> secrets) {
+        notNull(accountNames);
+        notNull(secrets);
+
+        final List<String> keyUris = new ArrayList<>();
+        final StringBuilder builder = new StringBuilder(128);
+        try {
+            for (final Label.AccountName accountName : accountNames) {
+                builder.setLength(0);
+                writeTo(accountName, secrets.apply(accountName), builder);
+                keyUris.add(builder.toString());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return keyUris;
+    }
+
+    /**
+     * Writes the key URI of the given account to the given appendable.
+     *
+     * @param accountName
+     *         the account name
+     * @param secret
+     *         the secret of the account
+     * @param out
+     *         the appendable to write the URI to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void writeTo(final Label.AccountName accountName, final Secret secret, final Appendable out) throws IOException {
+        notNull(accountName);
+        notNull(secret);
+        notNull(out);
+
+        KeyUri.appendUriPrefix(type, out);
+        Label.appendUriString(accountName, labelIssuer, out);
+        template.appendUriString(secret, out);
+    }
+
+    /**
+     * Creates the full {@link KeyUri} of the given account.
+     *
+     * @param accountName
+     *         the account name
+     * @param secret
+     *         the secret of the account
+     *
+     * @return the key URI
+     */
+    public KeyUri keyUri(final Label.AccountName accountName, final Secret secret) {
+        final Label label = labelIssuer.map(issuer -> new Label(accountName, issuer)).orElseGet(() -> new Label(accountName));
+        if (type == Type.TOTP) {
+            return new KeyUri(label, (TOTPParameters) template.withSecret(secret));
+        }
+        return new KeyUri(label, (HOTPParameters) template.withSecret(secret));
+    }
+}
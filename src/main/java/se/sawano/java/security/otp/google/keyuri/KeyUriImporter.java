@@ -0,0 +1,317 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Imports files with one key URI per line, e.g. an export from another system.
+ * <p>
+ * The file is memory-mapped and split into chunks at line boundaries. The chunks are then parsed in parallel with
+ * {@link KeyUriParser} on a {@link ForkJoinPool}. Lines may end with either LF or CRLF and empty lines are skipped.
+ * </p>
+ * <p>
+ * Labels are read in the order given when the importer is created, see {@link KeyUriParser.LabelOrder}. Use {@link
+ * KeyUriParser.LabelOrder#ACCOUNT_NAME_FIRST} to import key URIs written by this library, whose labels are {@code
+ * accountName:issuer}.
+ * </p>
+ */
+public final class KeyUriImporter {
+
+    /**
+     * The default chunk size, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The max chunk size, in bytes.
+     */
+    public static final int MAX_CHUNK_SIZE = 1024 * 1024 * 1024;
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /**
+     * Receives the result of each line. The methods are invoked concurrently from the threads of the pool and in no
+     * particular order, so implementations must be thread safe.
+     */
+    public interface Listener {
+
+        /**
+         * Invoked for each line that is a valid key URI.
+         *
+         * @param lineNumber
+         *         the line number, starting at 1
+         * @param keyUri
+         *         the key URI
+         */
+        void onKeyUri(long lineNumber, KeyUri keyUri);
+
+        /**
+         * Invoked for each line that is not a valid key URI.
+         *
+         * @param lineNumber
+         *         the line number, starting at 1
+         * @param error
+         *         the reason why the line is invalid
+         */
+        void onError(long lineNumber, IllegalArgumentException error);
+    }
+
+    /**
+     * Creates an importer that uses the common pool and the {@link #DEFAULT_CHUNK_SIZE}, and reads labels in the
+     * {@link KeyUriParser.LabelOrder#ISSUER_FIRST} order.
+     *
+     * @return the importer
+     */
+    public static KeyUriImporter keyUriImporter() {
+        return keyUriImporter(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an importer that reads labels in the {@link KeyUriParser.LabelOrder#ISSUER_FIRST} order.
+     *
+     * @param pool
+     *         the pool to parse the chunks on
+     * @param chunkSize
+     *         the approximate number of bytes in each chunk, at most {@link #MAX_CHUNK_SIZE}
+     *
+     * @return the importer
+     */
+    public static KeyUriImporter keyUriImporter(final ForkJoinPool pool, final int chunkSize) {
+        return keyUriImporter(pool, chunkSize, KeyUriParser.LabelOrder.ISSUER_FIRST);
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param pool
+     *         the pool to parse the chunks on
+     * @param chunkSize
+     *         the approximate number of bytes in each chunk, at most {@link #MAX_CHUNK_SIZE}
+     * @param labelOrder
+     *         the order of the issuer and the account name in labels without a matching issuer parameter
+     *
+     * @return the importer
+     */
+    public static KeyUriImporter keyUriImporter(final ForkJoinPool pool, final int chunkSize,
+                                                final KeyUriParser.LabelOrder labelOrder) {
+        return new KeyUriImporter(pool, chunkSize, labelOrder);
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final KeyUriParser.LabelOrder labelOrder;
+
+    private KeyUriImporter(final ForkJoinPool pool, final int chunkSize, final KeyUriParser.LabelOrder labelOrder) {
+        notNull(pool);
+        inclusiveBetween(1, MAX_CHUNK_SIZE, chunkSize, "Chunk size must be between 1 and %d", MAX_CHUNK_SIZE);
+        notNull(labelOrder);
+
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.labelOrder = labelOrder;
+    }
+
+    /**
+     * Imports the given file and reports the result of each line to the listener. Returns when all lines have been
+     * reported.
+     *
+     * @param file
+     *         the file to import
+     * @param listener
+     *         the listener that receives the result of each line
+     *
+     * @throws IOException
+     *         if the file cannot be read
+     */
+    public void importFile(final Path file, final Listener listener) throws IOException {
+        notNull(file);
+        notNull(listener);
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final List<MappedByteBuffer> chunks = mapChunks(channel);
+            final long[] firstLineNumbers = new long[chunks.size()];
+
+            // The line numbers of a chunk depend on all chunks before it, so count the lines before parsing anything
+            forEachChunk(chunks.size(), i -> firstLineNumbers[i] = countLines(chunks.get(i)));
+            long lineNumber = 1;
+            for (int i = 0; i < firstLineNumbers.length; ++i) {
+                final long lines = firstLineNumbers[i];
+                firstLineNumbers[i] = lineNumber;
+                lineNumber += lines;
+            }
+
+            forEachChunk(chunks.size(), i -> parseChunk(chunks.get(i), firstLineNumbers[i], listener));
+        }
+    }
+
+    private List<MappedByteBuffer> mapChunks(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final List<MappedByteBuffer> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            final long end = chunkEnd(channel, start, size);
+            isTrue(end - start <= Integer.MAX_VALUE, "Line at offset %d is too long", start);
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the end of the chunk that starts at the given offset, which is right after the first line feed found at or
+     * after the nominal chunk size. A read that returns nothing, for example because the file was truncated after its
+     * size was taken, is treated as the end of the file.
+     */
+    private long chunkEnd(final FileChannel channel, final long start, final long size) throws IOException {
+        long position = start + chunkSize - 1;
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return position;
+            }
+            for (int i = 0; i < read; ++i) {
+                if (buffer.get(i) == LINE_FEED) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void forEachChunk(final int chunkCount, final IntConsumer action) {
+        if (chunkCount > 0) {
+            pool.invoke(new ChunkAction(0, chunkCount, action));
+        }
+    }
+
+    private static long countLines(final ByteBuffer chunk) {
+        final ByteBuffer source = chunk.duplicate();
+        final byte[] block = new byte[Math.min(BLOCK_SIZE, source.remaining())];
+        long lines = 0;
+        while (source.hasRemaining()) {
+            final int length = Math.min(block.length, source.remaining());
+            source.get(block, 0, length);
+            for (int i = 0; i < length; ++i) {
+                if (block[i] == LINE_FEED) {
+                    ++lines;
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Copies the chunk block by block to a heap array and parses each line in place in the array. A line that does not
+     * fit in what is left of a block is moved to the start of the next one.
+     */
+    private void parseChunk(final ByteBuffer chunk, final long firstLineNumber, final Listener listener) {
+        final ByteBuffer source = chunk.duplicate();
+        byte[] block = new byte[Math.min(BLOCK_SIZE, source.remaining())];
+        long lineNumber = firstLineNumber;
+        int length = 0;
+        while (true) {
+            final int scanFrom = length;
+            final int read = Math.min(block.length - length, source.remaining());
+            source.get(block, length, read);
+            length += read;
+
+            int lineStart = 0;
+            for (int i = scanFrom; i < length; ++i) {
+                if (block[i] == LINE_FEED) {
+                    parseLine(block, lineStart, i, lineNumber++, listener);
+                    lineStart = i + 1;
+                }
+            }
+            if (!source.hasRemaining()) {
+                parseLine(block, lineStart, length, lineNumber, listener);
+                return;
+            }
+            length -= lineStart;
+            System.arraycopy(block, lineStart, block, 0, length);
+            if (length == block.length) {
+                block = Arrays.copyOf(block, block.length * 2);
+            }
+        }
+    }
+
+    private void parseLine(final byte[] block, final int start, int end, final long lineNumber,
+                           final Listener listener) {
+        if (end > start && block[end - 1] == CARRIAGE_RETURN) {
+            --end;
+        }
+        if (end == start) {
+            return;
+        }
+        final KeyUri keyUri;
+        try {
+            keyUri = KeyUriParser.parse(block, start, end - start, labelOrder);
+        } catch (final IllegalArgumentException e) {
+            listener.onError(lineNumber, e);
+            return;
+        }
+        listener.onKeyUri(lineNumber, keyUri);
+    }
+
+    /**
+     * Applies an action to a range of chunks by splitting the range in halves until a single chunk remains.
+     */
+    private static final class ChunkAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        ChunkAction(final int from, final int to, final IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, middle, action), new ChunkAction(middle, to, action));
+        }
+    }
+}
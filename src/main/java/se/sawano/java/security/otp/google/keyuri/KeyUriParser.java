@@ -0,0 +1,540 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Counter;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.HOTPParameters;
+import se.sawano.java.security.otp.google.keyuri.parameters.Issuer;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+import se.sawano.java.security.otp.google.keyuri.parameters.Period;
+import se.sawano.java.security.otp.google.keyuri.parameters.Secret;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+
+/**
+ * Parses key URIs, i.e. otpauth://TYPE/LABEL?PARAMETERS, into {@link KeyUri}s.
+ * <p>
+ * The URI is read in a single pass without regular expressions or {@link java.net.URI}. Each component is
+ * percent-decoded as it is read. The same rules as when creating a {@code KeyUri} apply, with the following
+ * additions:
+ * </p>
+ * <ul>
+ * <li>The scheme, type and algorithm are case insensitive.</li>
+ * <li>A label with an issuer is read as {@code issuer:accountName}, as in the Key URI format, unless another {@link
+ * LabelOrder} is given. Note that {@link Label#asUriString()} writes {@code accountName:issuer}, so use {@link
+ * LabelOrder#ACCOUNT_NAME_FIRST} to read such labels when they have no issuer parameter. If the issuer parameter is
+ * present and equals exactly one part of the label, that part is the issuer regardless of the order.</li>
+ * <li>The secret may be padded and in lower case.</li>
+ * <li>If the period is absent from a TOTP URI the default period of 30 seconds is used.</li>
+ * <li>Unknown parameters are ignored, but a known parameter may only be present once.</li>
+ * </ul>
+ */
+public final class KeyUriParser {
+
+    private static final String OTPAUTH_SCHEME = "otpauth://";
+    private static final Duration DEFAULT_PERIOD = Duration.ofSeconds(30);
+    private static final int NOT_FOUND = -1;
+
+    /**
+     * The order of the issuer and the account name in a label that has both, e.g. {@code Acme:alice}.
+     */
+    public enum LabelOrder {
+        /**
+         * {@code issuer:accountName}, as in the Key URI format.
+         */
+        ISSUER_FIRST,
+        /**
+         * {@code accountName:issuer}, as written by {@link Label#asUriString()}.
+         */
+        ACCOUNT_NAME_FIRST
+    }
+
+    /**
+     * Parses the given key URI, reading the label as {@code issuer:accountName}.
+     *
+     * @param uri
+     *         the URI to parse
+     *
+     * @return the key URI
+     *
+     * @throws IllegalArgumentException
+     *         if the URI is not a valid key URI
+     */
+    public static KeyUri parse(final CharSequence uri) {
+        return parse(uri, LabelOrder.ISSUER_FIRST);
+    }
+
+    /**
+     * Parses the given key URI.
+     *
+     * @param uri
+     *         the URI to parse
+     * @param labelOrder
+     *         the order of the issuer and the account name in the label
+     *
+     * @return the key URI
+     *
+     * @throws IllegalArgumentException
+     *         if the URI is not a valid key URI
+     */
+    public static KeyUri parse(final CharSequence uri, final LabelOrder labelOrder) {
+        notNull(uri);
+        notNull(labelOrder);
+
+        return new KeyUriParser(new CharInput(uri), labelOrder).parse();
+    }
+
+    /**
+     * Parses the given key URI. Any byte that is not part of a percent-encoded octet is treated as raw UTF-8.
+     *
+     * @param uri
+     *         the URI to parse
+     *
+     * @return the key URI
+     *
+     * @throws IllegalArgumentException
+     *         if the URI is not a valid key URI
+     */
+    public static KeyUri parse(final byte[] uri) {
+        notNull(uri);
+
+        return parse(uri, 0, uri.length);
+    }
+
+    /**
+     * Parses the key URI in the given range of the array.
+     *
+     * @param uri
+     *         the array that contains the URI
+     * @param offset
+     *         the index of the first byte of the URI
+     * @param length
+     *         the number of bytes in the URI
+     *
+     * @return the key URI
+     *
+     * @throws IllegalArgumentException
+     *         if the URI is not a valid key URI
+     * @see #parse(byte[])
+     */
+    public static KeyUri parse(final byte[] uri, final int offset, final int length) {
+        return parse(uri, offset, length, LabelOrder.ISSUER_FIRST);
+    }
+
+    /**
+     * Parses the key URI in the given range of the array.
+     *
+     * @param uri
+     *         the array that contains the URI
+     * @param offset
+     *         the index of the first byte of the URI
+     * @param length
+     *         the number of bytes in the URI
+     * @param labelOrder
+     *         the order of the issuer and the account name in the label
+     *
+     * @return the key URI
+     *
+     * @throws IllegalArgumentException
+     *         if the URI is not a valid key URI
+     * @see #parse(byte[])
+     */
+    public static KeyUri parse(final byte[] uri, final int offset, final int length, final LabelOrder labelOrder) {
+        notNull(uri);
+        isTrue(offset >= 0 && length >= 0 && offset <= uri.length - length, "Invalid range");
+        notNull(labelOrder);
+
+        return new KeyUriParser(new ByteInput(uri, offset, length), labelOrder).parse();
+    }
+
+    private final Input input;
+    private final LabelOrder labelOrder;
+    private final int end;
+    /**
+     * Holds the decoded octets of the component that was read last.
+     */
+    private final byte[] scratch;
+    private int position;
+
+    private String labelPrefix;
+    private String labelSuffix;
+    private Secret secret;
+    private Issuer issuer;
+    private Algorithm algorithm;
+    private Digits digits;
+    private Counter counter;
+    private Period period;
+
+    private KeyUriParser(final Input input, final LabelOrder labelOrder) {
+        this.input = input;
+        this.labelOrder = labelOrder;
+        this.end = input.length();
+        // A char may need up to three UTF-8 octets, a surrogate pair needs four, so this always suffices
+        this.scratch = new byte[input.isBytes() ? end : end * 3];
+    }
+
+    private KeyUri parse() {
+        readScheme();
+        final Type type = readType();
+        readLabel();
+        readParameters();
+        return type == Type.TOTP ? new KeyUri(label(), totpParameters()) : new KeyUri(label(), hotpParameters());
+    }
+
+    private void readScheme() {
+        isTrue(end >= OTPAUTH_SCHEME.length() && regionMatchesIgnoreCase(OTPAUTH_SCHEME, 0, OTPAUTH_SCHEME.length()),
+               "Key URI must start with '%s'", OTPAUTH_SCHEME);
+        position = OTPAUTH_SCHEME.length();
+    }
+
+    private Type readType() {
+        final int start = position;
+        while (position < end && input.at(position) != '/') {
+            ++position;
+        }
+        isTrue(position < end, "Key URI has no label");
+        final int length = position++ - start;
+        if (regionEqualsIgnoreCase(Type.TOTP.value(), start, length)) {
+            return Type.TOTP;
+        }
+        if (regionEqualsIgnoreCase(Type.HOTP.value(), start, length)) {
+            return Type.HOTP;
+        }
+        throw new IllegalArgumentException("Unknown type");
+    }
+
+    private void readLabel() {
+        final int length = decodeUntil('?');
+        int separator = NOT_FOUND;
+        for (int i = 0; i < length && separator == NOT_FOUND; ++i) {
+            if (scratch[i] == ':') {
+                separator = i;
+            }
+        }
+        if (separator == NOT_FOUND) {
+            labelPrefix = new String(scratch, 0, length, UTF_8);
+        }
+        else {
+            labelPrefix = new String(scratch, 0, separator, UTF_8);
+            labelSuffix = new String(scratch, separator + 1, length - separator - 1, UTF_8);
+        }
+    }
+
+    private Label label() {
+        if (labelSuffix == null) {
+            return new Label(accountName(labelPrefix));
+        }
+        boolean issuerFirst = labelOrder == LabelOrder.ISSUER_FIRST;
+        if (issuer != null) {
+            final boolean prefixIsIssuer = labelPrefix.trim().equals(issuer.value());
+            if (prefixIsIssuer != labelSuffix.trim().equals(issuer.value())) {
+                issuerFirst = prefixIsIssuer;
+            }
+        }
+        return issuerFirst
+               ? new Label(accountName(labelSuffix), Label.Issuer.issuer(labelPrefix))
+               : new Label(accountName(labelPrefix), Label.Issuer.issuer(labelSuffix));
+    }
+
+    private void readParameters() {
+        if (position < end) {
+            // Skip '?'
+            ++position;
+        }
+        while (position < end) {
+            final int nameStart = position;
+            while (position < end && input.at(position) != '=' && input.at(position) != '&') {
+                ++position;
+            }
+            final int nameLength = position - nameStart;
+            if (position < end && input.at(position) == '=') {
+                ++position;
+            }
+            final int valueLength = decodeUntil('&');
+            if (position < end) {
+                // Skip '&'
+                ++position;
+            }
+            readParameter(nameStart, nameLength, valueLength);
+        }
+    }
+
+    private void readParameter(final int nameStart, final int nameLength, final int valueLength) {
+        if (regionEquals("secret", nameStart, nameLength)) {
+            isTrue(secret == null, "Duplicate parameter 'secret'");
+            secret = Secret.fromBase32(new String(scratch, 0, valueLength, US_ASCII));
+        }
+        else if (regionEquals("issuer", nameStart, nameLength)) {
+            isTrue(issuer == null, "Duplicate parameter 'issuer'");
+            issuer = Issuer.issuer(new String(scratch, 0, valueLength, UTF_8));
+        }
+        else if (regionEquals("algorithm", nameStart, nameLength)) {
+            isTrue(algorithm == null, "Duplicate parameter 'algorithm'");
+            algorithm = algorithm(valueLength);
+        }
+        else if (regionEquals("digits", nameStart, nameLength)) {
+            isTrue(digits == null, "Duplicate parameter 'digits'");
+            digits = digits(valueLength);
+        }
+        else if (regionEquals("counter", nameStart, nameLength)) {
+            isTrue(counter == null, "Duplicate parameter 'counter'");
+            counter = Counter.counter(decodeLong(valueLength));
+        }
+        else if (regionEquals("period", nameStart, nameLength)) {
+            isTrue(period == null, "Duplicate parameter 'period'");
+            final long seconds = decodeLong(valueLength);
+            isTrue(seconds > 0, "Period must be positive");
+            period = Period.period(Duration.ofSeconds(seconds));
+        }
+    }
+
+    private TOTPParameters totpParameters() {
+        isTrue(secret != null, "'Secret' is required");
+        isTrue(counter == null, "'Counter' is not allowed for type TOTP");
+        return ParametersBuilder.totpBuilder()
+                                .withSecret(secret)
+                                .withIssuer(issuer)
+                                .withAlgorithm(algorithm)
+                                .withDigits(digits)
+                                .withPeriod(period == null ? Period.period(DEFAULT_PERIOD) : period)
+                                .create();
+    }
+
+    private HOTPParameters hotpParameters() {
+        isTrue(secret != null, "'Secret' is required");
+        isTrue(period == null, "'Period' is not allowed for type HOTP");
+        return ParametersBuilder.hotpBuilder()
+                                .withSecret(secret)
+                                .withIssuer(issuer)
+                                .withAlgorithm(algorithm)
+                                .withDigits(digits)
+                                .withCounter(counter)
+                                .create();
+    }
+
+    /**
+     * Percent-decodes the input from the current position up to, but not including, the given delimiter, or the end
+     * of the input. The decoded octets are put in the scratch buffer.
+     *
+     * @return the number of decoded octets
+     */
+    private int decodeUntil(final char delimiter) {
+        int length = 0;
+        while (position < end) {
+            final int c = input.at(position);
+            if (c == delimiter) {
+                break;
+            }
+            if (c == '%') {
+                isTrue(position + 2 < end, "Incomplete percent-encoding");
+                scratch[length++] = (byte) ((hexValue(input.at(position + 1)) << 4) | hexValue(input.at(position + 2)));
+                position += 3;
+            }
+            else if (c < 0x80 || input.isBytes()) {
+                scratch[length++] = (byte) c;
+                ++position;
+            }
+            else {
+                length = encodeUtf8(length);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Puts the UTF-8 octets of the non-ASCII character, or surrogate pair, at the current position in the scratch
+     * buffer.
+     */
+    private int encodeUtf8(int length) {
+        final char c = (char) input.at(position++);
+        int cp = c;
+        if (Character.isHighSurrogate(c)) {
+            isTrue(position < end && Character.isLowSurrogate((char) input.at(position)), "Invalid surrogate pair");
+            cp = Character.toCodePoint(c, (char) input.at(position++));
+        }
+        else {
+            isTrue(!Character.isLowSurrogate(c), "Invalid surrogate pair");
+        }
+        if (cp <= 0x7FF) {
+            scratch[length++] = (byte) (0xC0 | (cp >>> 6));
+        }
+        else if (cp <= 0xFFFF) {
+            scratch[length++] = (byte) (0xE0 | (cp >>> 12));
+            scratch[length++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+        }
+        else {
+            scratch[length++] = (byte) (0xF0 | (cp >>> 18));
+            scratch[length++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+            scratch[length++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+        }
+        scratch[length++] = (byte) (0x80 | (cp & 0x3F));
+        return length;
+    }
+
+    private static int hexValue(final int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        throw new IllegalArgumentException("Invalid percent-encoding");
+    }
+
+    private Algorithm algorithm(final int length) {
+        for (final Algorithm candidate : Algorithm.values()) {
+            if (scratchEqualsIgnoreCase(candidate.value(), length)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unknown algorithm");
+    }
+
+    private Digits digits(final int length) {
+        final long value = decodeLong(length);
+        for (final Digits candidate : Digits.values()) {
+            if (candidate.value() == value) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported number of digits: " + value);
+    }
+
+    private long decodeLong(final int length) {
+        isTrue(length > 0 && length <= 18, "Invalid number");
+        long value = 0;
+        for (int i = 0; i < length; ++i) {
+            final byte b = scratch[i];
+            isTrue(b >= '0' && b <= '9', "Invalid number");
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private boolean scratchEqualsIgnoreCase(final String value, final int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (Character.toUpperCase((char) scratch[i]) != Character.toUpperCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(final String value, final int start, final int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (input.at(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEqualsIgnoreCase(final String value, final int start, final int length) {
+        return value.length() == length && regionMatchesIgnoreCase(value, start, length);
+    }
+
+    private boolean regionMatchesIgnoreCase(final String value, final int start, final int length) {
+        for (int i = 0; i < length; ++i) {
+            if (Character.toLowerCase(input.at(start + i)) != Character.toLowerCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The characters, or bytes, of the URI being parsed.
+     */
+    private interface Input {
+
+        int at(int index);
+
+        int length();
+
+        boolean isBytes();
+    }
+
+    private static final class CharInput implements Input {
+
+        private final CharSequence value;
+
+        CharInput(final CharSequence value) {
+            this.value = value;
+        }
+
+        @Override
+        public int at(final int index) {
+            return value.charAt(index);
+        }
+
+        @Override
+        public boolean isBytes() {
+            return false;
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+    }
+
+    private static final class ByteInput implements Input {
+
+        private final byte[] value;
+        private final int offset;
+        private final int length;
+
+        ByteInput(final byte[] value, final int offset, final int length) {
+            this.value = value;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int at(final int index) {
+            return value[offset + index] & 0xFF;
+        }
+
+        @Override
+        public boolean isBytes() {
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package se.sawano.java.security.otp.google.keyuri;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.apache.commons.lang3.Validate.*;
@@ -28,9 +29,12 @@ import static org.apache.commons.lang3.Validate.*;
  */
 public final class Label {
 
+    private static final String ENCODED_SEPARATOR = "%3A";
+
     private final AccountName accountName;
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     private final Optional<Issuer> issuer;
+    private String uriString;
 
     /**
      * Creates a label with the given account name and without an issuer. Note that it's recommended to always use an
@@ -91,9 +95,53 @@ public final class Label {
         return issuer;
     }
 
+    /**
+     * Returns the URI encoded label, i.e. the account name and the issuer, if present, separated by an encoded ':'.
+     * E.g.: {@code john.doe%40example.com%3AMy%20Co}
+     * <p>
+     * The account name and issuer are encoded directly into one buffer, without concatenating them first. The string
+     * is created on first use and then cached. The buffer is borrowed from {@link ScratchBuffers}.
+     * </p>
+     *
+     * @return the URI encoded label
+     */
     public String asUriString() {
-        final String value = accountName.value() + issuer.map(i -> ":" + i.value()).orElse("");
-        return UriEncoder.encode(value);
+        String result = uriString;
+        if (result == null) {
+            uriString = result = ScratchBuffers.render(64, this::appendEncoded);
+        }
+        return result;
+    }
+
+    /**
+     * Appends the same value as {@link #asUriString()} to the given appendable. The cached string is used if there is
+     * one, otherwise the label is encoded straight into the appendable without caching it.
+     */
+    void appendUriString(final Appendable out) throws IOException {
+        final String cached = uriString;
+        if (cached != null) {
+            out.append(cached);
+            return;
+        }
+        appendEncoded(out);
+    }
+
+    private void appendEncoded(final Appendable out) throws IOException {
+        appendUriString(accountName, issuer, out);
+    }
+
+    /**
+     * Appends the URI encoded label of the given account name and issuer, as {@link #asUriString()} does, without
+     * creating a label.
+     */
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    static void appendUriString(final AccountName accountName, final Optional<Issuer> issuer, final Appendable out)
+            throws IOException {
+        UriEncoder.encode(accountName.value(), out);
+        if (issuer.isPresent()) {
+            out.append(ENCODED_SEPARATOR);
+            issuer.get().appendUriString(out);
+        }
     }
 
     /**
@@ -132,7 +180,20 @@ public final class Label {
     public static final class Issuer {
 
         public static Issuer issuer(final String value) {
-            return new Issuer(value);
+            return new Issuer(value, false);
+        }
+
+        /**
+         * Returns a shared issuer with the given value, which is validated and URI encoded only the first time. This
+         * is intended for the few issuers, e.g. tenant names, that most key URIs use. See {@link InternCache}.
+         *
+         * @param value
+         *         the issuer
+         *
+         * @return the shared issuer
+         */
+        public static Issuer cached(final String value) {
+            return CACHE.get(value);
         }
 
         /**
@@ -140,20 +201,35 @@ public final class Label {
          */
         public static final int MAX_LENGTH = 200;
 
+        private static final InternCache<Issuer> CACHE = new InternCache<>(value -> new Issuer(value, true));
+
         private final String value;
+        /**
+         * The URI encoded value, or null if the issuer is not shared.
+         */
+        private final String encodedValue;
 
-        private Issuer(final String value) {
+        private Issuer(final String value, final boolean preEncode) {
             notBlank(value);
             final String trimmed = value.trim();
             inclusiveBetween(0, MAX_LENGTH, trimmed.length(), "Maximum length of issuer is %d", MAX_LENGTH);
             isTrue(!trimmed.contains(":"), "Issuer may not contain ':'");
 
             this.value = trimmed;
+            this.encodedValue = preEncode ? UriEncoder.encode(trimmed) : null;
         }
 
         public String value() {
             return value;
         }
+
+        void appendUriString(final Appendable out) throws IOException {
+            if (encodedValue != null) {
+                out.append(encodedValue);
+                return;
+            }
+            UriEncoder.encode(value, out);
+        }
     }
 
 }
@@ -18,6 +18,8 @@
 
 package se.sawano.java.security.otp.google.keyuri;
 
+import java.io.IOException;
+
 import static org.apache.commons.lang3.Validate.notNull;
 
 /**
@@ -151,12 +153,186 @@ final class PercentEscaper extends UnicodeEscaper {
         for (int index = 0; index < slen; index++) {
             char c = s.charAt(index);
             if (c >= safeOctets.length || !safeOctets[c]) {
-                return escapeSlow(s, index);
+                return escapeExactly(s, index);
             }
         }
         return s;
     }
 
+    /**
+     * Escapes the string, starting at the index of the first char that must be escaped, in two passes. The first pass
+     * computes the exact length of the result from the UTF-8 length of each escaped code point, and the second writes
+     * the result, with the hex digits written in place, into an array of exactly that length. Unlike {@link
+     * #escapeSlow(String, int)} no scratch buffer or array per escaped code point is created.
+     */
+    private String escapeExactly(String s, int start) {
+        int end = s.length();
+        int length = start;
+        for (int index = start; index < end; ) {
+            int next = nextEscapeIndex(s, index, end);
+            length += next - index;
+            if (next == end) {
+                break;
+            }
+            int cp = codePointAt(s, next, end);
+            if (cp < 0) {
+                throw new IllegalArgumentException("Trailing high surrogate at end of input");
+            }
+            length += escapedLength(cp);
+            index = next + Character.charCount(cp);
+        }
+
+        char[] dest = new char[length];
+        s.getChars(0, start, dest, 0);
+        int destIndex = start;
+        for (int index = start; index < end; ) {
+            int next = nextEscapeIndex(s, index, end);
+            s.getChars(index, next, dest, destIndex);
+            destIndex += next - index;
+            if (next == end) {
+                break;
+            }
+            int cp = codePointAt(s, next, end);
+            destIndex = writeEscaped(cp, dest, destIndex);
+            index = next + Character.charCount(cp);
+        }
+        return new String(dest);
+    }
+
+    /**
+     * Returns the number of chars that the given code point, which must not be a safe character, is escaped to.
+     */
+    private int escapedLength(int cp) {
+        if (cp == ' ' && plusForSpace) {
+            return 1;
+        }
+        if (cp <= 0x7F) {
+            return 3;
+        }
+        if (cp <= 0x7ff) {
+            return 6;
+        }
+        return cp <= 0xffff ? 9 : 12;
+    }
+
+    /**
+     * Writes the given code point, which must not be a safe character, escaped in UTF-8 and returns the index after
+     * the last written char.
+     */
+    private int writeEscaped(int cp, char[] dest, int index) {
+        if (cp == ' ' && plusForSpace) {
+            dest[index] = '+';
+            return index + 1;
+        }
+        if (cp <= 0x7F) {
+            return writeOctet(cp, dest, index);
+        }
+        if (cp <= 0x7ff) {
+            index = writeOctet(0xC0 | (cp >>> 6), dest, index);
+            return writeOctet(0x80 | (cp & 0x3F), dest, index);
+        }
+        if (cp <= 0xffff) {
+            index = writeOctet(0xE0 | (cp >>> 12), dest, index);
+            index = writeOctet(0x80 | ((cp >>> 6) & 0x3F), dest, index);
+            return writeOctet(0x80 | (cp & 0x3F), dest, index);
+        }
+        index = writeOctet(0xF0 | (cp >>> 18), dest, index);
+        index = writeOctet(0x80 | ((cp >>> 12) & 0x3F), dest, index);
+        index = writeOctet(0x80 | ((cp >>> 6) & 0x3F), dest, index);
+        return writeOctet(0x80 | (cp & 0x3F), dest, index);
+    }
+
+    private static int writeOctet(int octet, char[] dest, int index) {
+        dest[index] = '%';
+        dest[index + 1] = UPPER_HEX_DIGITS[octet >>> 4];
+        dest[index + 2] = UPPER_HEX_DIGITS[octet & 0xF];
+        return index + 3;
+    }
+
+    /**
+     * Escapes the given character sequence and appends the result to the given appendable. Unlike {@link
+     * #escape(String)} no intermediate strings or buffers are created.
+     *
+     * @param csq
+     *         the characters to escape
+     * @param out
+     *         the appendable to write the escaped characters to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     * @throws IllegalArgumentException
+     *         if the input contains malformed surrogate pairs
+     */
+    public void escape(CharSequence csq, Appendable out) throws IOException {
+        notNull(csq);
+        notNull(out);
+        int end = csq.length();
+        int index = 0;
+        while (index < end) {
+            int nextEscapeIndex = nextEscapeIndex(csq, index, end);
+            appendUnescaped(csq, index, nextEscapeIndex, out);
+            if (nextEscapeIndex == end) {
+                break;
+            }
+            int cp = codePointAt(csq, nextEscapeIndex, end);
+            if (cp < 0) {
+                throw new IllegalArgumentException("Trailing high surrogate at end of input");
+            }
+            appendEscaped(cp, out);
+            index = nextEscapeIndex + (Character.isSupplementaryCodePoint(cp) ? 2 : 1);
+        }
+    }
+
+    /*
+     * Only StringBuilder is known to append a range of a CharSequence without creating a sub sequence first, so other
+     * appendables get one char at a time.
+     */
+    private static void appendUnescaped(CharSequence csq, int start, int end, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(csq, start, end);
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            out.append(csq.charAt(i));
+        }
+    }
+
+    /**
+     * Appends the given Unicode code point, which must not be a safe character, escaped in UTF-8.
+     */
+    private void appendEscaped(int cp, Appendable out) throws IOException {
+        if (cp == ' ' && plusForSpace) {
+            out.append('+');
+        }
+        else if (cp <= 0x7F) {
+            appendOctet(cp, out);
+        }
+        else if (cp <= 0x7ff) {
+            appendOctet(0xC0 | (cp >>> 6), out);
+            appendOctet(0x80 | (cp & 0x3F), out);
+        }
+        else if (cp <= 0xffff) {
+            appendOctet(0xE0 | (cp >>> 12), out);
+            appendOctet(0x80 | ((cp >>> 6) & 0x3F), out);
+            appendOctet(0x80 | (cp & 0x3F), out);
+        }
+        else if (cp <= 0x10ffff) {
+            appendOctet(0xF0 | (cp >>> 18), out);
+            appendOctet(0x80 | ((cp >>> 12) & 0x3F), out);
+            appendOctet(0x80 | ((cp >>> 6) & 0x3F), out);
+            appendOctet(0x80 | (cp & 0x3F), out);
+        }
+        else {
+            throw new IllegalArgumentException("Invalid unicode character value " + cp);
+        }
+    }
+
+    private static void appendOctet(int octet, Appendable out) throws IOException {
+        out.append('%');
+        out.append(UPPER_HEX_DIGITS[octet >>> 4]);
+        out.append(UPPER_HEX_DIGITS[octet & 0xF]);
+    }
+
     /**
      * Escapes the given Unicode code point in UTF-8.
      */
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An opt-in pool of the string builders that are used when a key URI, a label or a parameter query is rendered to a
+ * string. The pool is disabled by default, in which case a new builder is created for each string as before.
+ * <p>
+ * The pool is a small array of slots that are taken and returned with atomic operations, so no thread ever waits for
+ * another and nothing is tied to a thread, which also makes it safe to use with virtual threads. A builder that has
+ * grown larger than {@value #MAX_RETAINED_CAPACITY} chars is not returned to the pool. A builder is zeroed when it is
+ * returned, so that the key of an off-heap {@link se.sawano.java.security.otp.google.keyuri.parameters.Secret} is not
+ * left in the pool.
+ * </p>
+ * <p>
+ * Use {@link #hits()} and {@link #misses()} to see whether the pool is large enough for the load.
+ * </p>
+ */
+public final class ScratchBuffers {
+
+    /**
+     * The max capacity, in chars, of a builder that is kept in the pool.
+     */
+    public static final int MAX_RETAINED_CAPACITY = 1024;
+
+    /**
+     * The number of slots that are searched for a free builder, or an empty slot, before giving up.
+     */
+    private static final int PROBES = 4;
+
+    private static final int SLOTS = slots(Runtime.getRuntime().availableProcessors());
+
+    private static final AtomicReferenceArray<StringBuilder> POOL = new AtomicReferenceArray<>(SLOTS);
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private static volatile boolean enabled;
+
+    /**
+     * Writes a value to an appendable, e.g. {@code label::appendUriString}.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        void appendTo(Appendable out) throws IOException;
+    }
+
+    private ScratchBuffers() {
+    }
+
+    /**
+     * Enables or disables the pool. Disabling the pool empties it, but builders that are in use are still returned
+     * safely.
+     *
+     * @param enable
+     *         true to enable the pool
+     */
+    public static void setEnabled(final boolean enable) {
+        enabled = enable;
+        if (!enable) {
+            for (int i = 0; i < SLOTS; ++i) {
+                POOL.set(i, null);
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of times a builder was taken from the pool.
+     */
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    /**
+     * Returns the number of times the pool was enabled but had no free builder, so a new one was created.
+     */
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * Resets {@link #hits()} and {@link #misses()} to zero.
+     */
+    public static void resetStatistics() {
+        HITS.reset();
+        MISSES.reset();
+    }
+
+    /**
+     * Renders the given content to a string with a builder that is borrowed from the pool and given back afterwards.
+     *
+     * @param capacity
+     *         the initial capacity of a new builder
+     * @param content
+     *         writes the content to the builder
+     *
+     * @return the string
+     *
+     * @throws UncheckedIOException
+     *         if the content fails to write itself
+     */
+    public static String render(final int capacity, final Content content) {
+        final StringBuilder builder = acquire(capacity);
+        try {
+            content.appendTo(builder);
+            return builder.toString();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(builder);
+        }
+    }
+
+    /**
+     * Returns an empty builder, taken from the pool if it is enabled and has a free builder. Each builder must be given
+     * back with {@link #release(StringBuilder)}, preferably in a finally block, and must not be used after that.
+     *
+     * @param capacity
+     *         the initial capacity of a new builder
+     *
+     * @return an empty builder
+     */
+    public static StringBuilder acquire(final int capacity) {
+        if (!enabled) {
+            return new StringBuilder(capacity);
+        }
+        final int start = start();
+        for (int i = 0; i < PROBES; ++i) {
+            final StringBuilder builder = POOL.getAndSet((start + i) & (SLOTS - 1), null);
+            if (builder != null) {
+                HITS.increment();
+                return builder;
+            }
+        }
+        MISSES.increment();
+        return new StringBuilder(capacity);
+    }
+
+    /**
+     * Gives back a builder that was returned by {@link #acquire(int)}. The builder is kept for reuse if the pool is
+     * enabled, there is a free slot and the builder is not too large.
+     *
+     * @param builder
+     *         the builder, or null
+     */
+    public static void release(final StringBuilder builder) {
+        if (!enabled || builder == null || builder.capacity() > MAX_RETAINED_CAPACITY) {
+            return;
+        }
+        // Growing the length again fills the used chars with '\0'
+        final int length = builder.length();
+        builder.setLength(0);
+        builder.setLength(length);
+        builder.setLength(0);
+        final int start = start();
+        for (int i = 0; i < PROBES; ++i) {
+            if (POOL.compareAndSet((start + i) & (SLOTS - 1), null, builder)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Spreads the threads over the slots so that concurrent threads rarely probe the same slots.
+     */
+    private static int start() {
+        final long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) * 0x9E3779B9;
+    }
+
+    private static int slots(final int processors) {
+        return Math.min(256, powerOfTwo(processors * 2));
+    }
+
+    private static int powerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
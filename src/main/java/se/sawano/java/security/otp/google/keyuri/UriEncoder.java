@@ -16,6 +16,8 @@
 
 package se.sawano.java.security.otp.google.keyuri;
 
+import java.io.IOException;
+
 import static org.apache.commons.lang3.Validate.notNull;
 
 /**
@@ -29,17 +31,42 @@ public class UriEncoder {
      */
     private static final String UNRESERVED_CHARACTERS = "-._~";
 
+    /**
+     * The escaper is immutable and thread safe so a single instance is shared by all invocations.
+     */
+    private static final PercentEscaper ESCAPER = new PercentEscaper(UNRESERVED_CHARACTERS, false);
+
     /**
      * Encodes the given string.
      *
      * @param value
      *         the string to encode
      *
-     * @return the URI encoded string
+     * @return the URI encoded string, or the given string itself if it contains no characters that needs to be
+     * encoded
      */
     public static String encode(final String value) {
         notNull(value);
 
-        return new PercentEscaper(UNRESERVED_CHARACTERS, false).escape(value);
+        return ESCAPER.escape(value);
+    }
+
+    /**
+     * Encodes the given characters and appends the result to the given appendable without creating any intermediate
+     * strings.
+     *
+     * @param value
+     *         the characters to encode
+     * @param out
+     *         the appendable to write the URI encoded characters to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public static void encode(final CharSequence value, final Appendable out) throws IOException {
+        notNull(value);
+        notNull(out);
+
+        ESCAPER.escape(value, out);
     }
 }
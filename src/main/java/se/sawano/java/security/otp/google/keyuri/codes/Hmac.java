@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Secret;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The HOTP algorithm of <a href="https://tools.ietf.org/html/rfc4226">RFC 4226</a>, which TOTP is also based on.
+ * <p>
+ * Each thread has one {@link Mac} per {@link Algorithm} together with preallocated buffers for the counter and the
+ * HMAC, so computing a code does not allocate. The {@code Mac} is only re-initialized when it is used with a different
+ * key than the last time. Callers {@link #clear()} the instance once they are done with a key, so that neither the key
+ * nor what the {@code Mac} derives from it stays reachable from the thread.
+ * </p>
+ */
+final class Hmac {
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ThreadLocal<Hmac>[] PER_THREAD = new ThreadLocal[Algorithm.values().length];
+
+    static {
+        for (final Algorithm algorithm : Algorithm.values()) {
+            PER_THREAD[algorithm.ordinal()] = ThreadLocal.withInitial(() -> new Hmac(algorithm));
+        }
+    }
+
+    /**
+     * Returns the instance of the current thread for the given algorithm. The instance must not be shared with other
+     * threads.
+     */
+    static Hmac forCurrentThread(final Algorithm algorithm) {
+        return PER_THREAD[algorithm.ordinal()].get();
+    }
+
+    /**
+     * Creates the key to use with {@link #code(SecretKeySpec, long, int)} for the given secret. The spec keeps its own
+     * copy of the key, so the array it is created from is zeroed.
+     */
+    static SecretKeySpec key(final Secret secret, final Algorithm algorithm) {
+        final byte[] keyBytes = new byte[secret.keyLength()];
+        try {
+            secret.writeKeyBytes(keyBytes);
+            return new SecretKeySpec(keyBytes, macAlgorithm(algorithm));
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Returns a 64 bit fingerprint of the key, i.e. the first eight bytes of its SHA-256 hash, that identifies the key
+     * without revealing it.
+     */
+    static long fingerprint(final SecretKeySpec key) {
+        final byte[] encoded = key.getEncoded();
+        final byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(encoded);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithm not supported by platform: SHA-256", e);
+        } finally {
+            Arrays.fill(encoded, (byte) 0);
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < 8; ++i) {
+            fingerprint = (fingerprint << 8) | (hash[i] & 0xFF);
+        }
+        return fingerprint;
+    }
+
+    private static String macAlgorithm(final Algorithm algorithm) {
+        return "Hmac" + algorithm.value();
+    }
+
+    private final Mac mac;
+    private final byte[] counterBytes = new byte[8];
+    private final byte[] result;
+    /**
+     * A key of a single zero byte that replaces the last key in the {@code Mac} when the instance is cleared.
+     */
+    private final SecretKeySpec blankKey;
+    private SecretKeySpec key;
+
+    private Hmac(final Algorithm algorithm) {
+        try {
+            this.mac = Mac.getInstance(macAlgorithm(algorithm));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithm not supported by platform: " + algorithm, e);
+        }
+        this.result = new byte[mac.getMacLength()];
+        this.blankKey = new SecretKeySpec(new byte[1], macAlgorithm(algorithm));
+    }
+
+    /**
+     * Computes the HOTP value for the given counter.
+     *
+     * @param key
+     *         the key, created with {@link #key(Secret, Algorithm)}
+     * @param counter
+     *         the counter, or time step for TOTP
+     * @param digits
+     *         the number of digits of the code
+     *
+     * @return the code
+     */
+    int code(final SecretKeySpec key, final long counter, final int digits) {
+        init(key);
+
+        long value = counter;
+        for (int i = counterBytes.length - 1; i >= 0; --i) {
+            counterBytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        mac.update(counterBytes);
+        try {
+            mac.doFinal(result, 0);
+        } catch (final ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        return truncate(digits);
+    }
+
+    /**
+     * Forgets the last key by initializing the {@code Mac} with a blank key. Callers that compute several codes with
+     * the same key clear the instance once, after the last one.
+     */
+    void clear() {
+        if (key != null) {
+            key = null;
+            try {
+                mac.init(blankKey);
+            } catch (final InvalidKeyException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void init(final SecretKeySpec key) {
+        if (this.key == key) {
+            return;
+        }
+        try {
+            mac.init(key);
+        } catch (final InvalidKeyException e) {
+            throw new IllegalArgumentException("Invalid key", e);
+        }
+        this.key = key;
+    }
+
+    /**
+     * Dynamic truncation as described in RFC 4226, section 5.3.
+     */
+    private int truncate(final int digits) {
+        final int offset = result[result.length - 1] & 0xF;
+        final int binary = ((result[offset] & 0x7F) << 24)
+                | ((result[offset + 1] & 0xFF) << 16)
+                | ((result[offset + 2] & 0xFF) << 8)
+                | (result[offset + 3] & 0xFF);
+        return binary % POWERS_OF_TEN[digits];
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.HOTPParameters;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.OptionalLong;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Verifies HOTP codes as described in <a href="https://tools.ietf.org/html/rfc4226">RFC 4226</a>, with a look-ahead
+ * window to resynchronize counters that have drifted ahead of the server, e.g. when the button of a hardware token has
+ * been pressed without the code being used.
+ * <p>
+ * All counters in the window are always evaluated, using one {@code Mac} and one counter buffer of the current thread,
+ * so the time it takes does not depend on where in the window the code matches. Instances are thread safe.
+ * </p>
+ */
+public final class HotpVerifier {
+
+    /**
+     * The max size of the look-ahead window.
+     */
+    public static final int MAX_WINDOW = 1000;
+
+    /**
+     * Creates a verifier for the given parameters. If the algorithm or digits are absent the defaults, SHA1 and six
+     * digits, are used.
+     *
+     * @param parameters
+     *         the parameters
+     * @param window
+     *         the number of counters to check, starting with the current counter
+     *
+     * @return the verifier
+     */
+    public static HotpVerifier hotpVerifier(final HOTPParameters parameters, final int window) {
+        return new HotpVerifier(parameters, window);
+    }
+
+    private final Algorithm algorithm;
+    private final int digits;
+    private final long initialCounter;
+    private final int window;
+    private final SecretKeySpec key;
+
+    private HotpVerifier(final HOTPParameters parameters, final int window) {
+        notNull(parameters);
+        inclusiveBetween(1, MAX_WINDOW, window, "Window must be between 1 and %d", MAX_WINDOW);
+
+        this.algorithm = parameters.algorithm().orElse(Algorithm.SHA1);
+        this.digits = parameters.digits().orElse(Digits.SIX).value();
+        this.initialCounter = parameters.counter().get().value();
+        this.window = window;
+        this.key = Hmac.key(parameters.secret(), algorithm);
+    }
+
+    /**
+     * Verifies the code against the initial counter of the parameters.
+     *
+     * @param code
+     *         the code to verify
+     *
+     * @return the counter to use for the next verification, i.e. the counter that matched plus one, or empty if the
+     * code did not match any counter in the window
+     *
+     * @see #verify(long, int)
+     */
+    public OptionalLong verify(final int code) {
+        return verify(initialCounter, code);
+    }
+
+    /**
+     * Verifies the code against the counters {@code counter} to {@code counter + window - 1}.
+     *
+     * @param counter
+     *         the current counter of the account, as returned by the last successful verification
+     * @param code
+     *         the code to verify
+     *
+     * @return the counter to use for the next verification, i.e. the counter that matched plus one, or empty if the
+     * code did not match any counter in the window
+     */
+    public OptionalLong verify(final long counter, final int code) {
+        final Hmac hmac = Hmac.forCurrentThread(algorithm);
+        long match = -1;
+        try {
+            for (int i = window - 1; i >= 0; --i) {
+                // Iterate backwards so that the first matching counter wins without branching out of the loop
+                if (hmac.code(key, counter + i, digits) == code) {
+                    match = i;
+                }
+            }
+        } finally {
+            hmac.clear();
+        }
+        return match < 0 ? OptionalLong.empty() : OptionalLong.of(counter + match + 1);
+    }
+}
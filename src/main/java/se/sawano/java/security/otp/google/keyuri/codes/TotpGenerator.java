@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Generates TOTP codes as described in <a href="https://tools.ietf.org/html/rfc6238">RFC 6238</a>.
+ * <p>
+ * The secret is decoded once, when the generator is created. Generating a code does not allocate. Instances are
+ * thread safe.
+ * </p>
+ */
+public final class TotpGenerator {
+
+    /**
+     * Creates a generator for the given parameters. If the algorithm or digits are absent the defaults, SHA1 and six
+     * digits, are used.
+     *
+     * @param parameters
+     *         the parameters
+     *
+     * @return the generator
+     */
+    public static TotpGenerator totpGenerator(final TOTPParameters parameters) {
+        return new TotpGenerator(parameters);
+    }
+
+    private final Algorithm algorithm;
+    private final int digits;
+    private final long period;
+    private final SecretKeySpec key;
+
+    private TotpGenerator(final TOTPParameters parameters) {
+        notNull(parameters);
+
+        this.algorithm = parameters.algorithm().orElse(Algorithm.SHA1);
+        this.digits = parameters.digits().orElse(Digits.SIX).value();
+        this.period = parameters.period().get().value();
+        isTrue(period > 0, "Period must be positive");
+        this.key = Hmac.key(parameters.secret(), algorithm);
+    }
+
+    /**
+     * Returns the time step, i.e. the number of periods since the Unix epoch, of the given time.
+     *
+     * @param epochSecond
+     *         the number of seconds since the Unix epoch
+     *
+     * @return the time step
+     */
+    public long timeStep(final long epochSecond) {
+        return Math.floorDiv(epochSecond, period);
+    }
+
+    /**
+     * Generates the code for the given time.
+     *
+     * @param epochSecond
+     *         the number of seconds since the Unix epoch
+     *
+     * @return the code, which must be zero padded to {@link #digits()} when displayed
+     */
+    public int generate(final long epochSecond) {
+        return generateForTimeStep(timeStep(epochSecond));
+    }
+
+    /**
+     * Generates the code for the given time.
+     *
+     * @param instant
+     *         the time
+     *
+     * @return the code, which must be zero padded to {@link #digits()} when displayed
+     */
+    public int generate(final Instant instant) {
+        notNull(instant);
+
+        return generate(instant.getEpochSecond());
+    }
+
+    /**
+     * Generates the code for the given time step.
+     *
+     * @param timeStep
+     *         the time step
+     *
+     * @return the code, which must be zero padded to {@link #digits()} when displayed
+     *
+     * @see #timeStep(long)
+     */
+    public int generateForTimeStep(final long timeStep) {
+        final Hmac hmac = Hmac.forCurrentThread(algorithm);
+        try {
+            return hmac.code(key, timeStep, digits);
+        } finally {
+            hmac.clear();
+        }
+    }
+
+    public int digits() {
+        return digits;
+    }
+}
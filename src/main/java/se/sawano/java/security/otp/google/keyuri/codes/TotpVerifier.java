@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Verifies TOTP codes as described in <a href="https://tools.ietf.org/html/rfc6238">RFC 6238</a>, allowing for clock
+ * skew between the client and the server.
+ * <p>
+ * The time step is computed once per verification and the codes of all steps from {@code t - skew} to {@code t +
+ * skew} are computed on the {@code Mac} of the current thread. Each code is compared to the submitted code in constant
+ * time and all steps are always evaluated, so the time it takes does not depend on the code. No strings are created.
+ * Instances are thread safe.
+ * </p>
+ */
+public final class TotpVerifier {
+
+    /**
+     * The max number of time steps allowed on each side of the current time step.
+     */
+    public static final int MAX_SKEW = 100;
+
+    private static final long NO_MATCH = Long.MIN_VALUE;
+
+    /**
+     * Creates a verifier for the given parameters. If the algorithm or digits are absent the defaults, SHA1 and six
+     * digits, are used.
+     *
+     * @param parameters
+     *         the parameters
+     * @param skew
+     *         the number of time steps to accept before and after the current time step, typically 1
+     *
+     * @return the verifier
+     */
+    public static TotpVerifier totpVerifier(final TOTPParameters parameters, final int skew) {
+        return new TotpVerifier(parameters, skew);
+    }
+
+    /**
+     * Verifies many codes at once, e.g. a burst of logins, at the same time.
+     *
+     * @param parameters
+     *         the parameters of each code
+     * @param codes
+     *         the codes, in the same order as the parameters
+     * @param skew
+     *         the number of time steps to accept before and after the current time step
+     * @param epochSecond
+     *         the current time as the number of seconds since the Unix epoch
+     *
+     * @return whether each code is valid, in the same order as the codes
+     */
+    public static boolean[] verifyAll(final List<TOTPParameters> parameters, final int[] codes, final int skew,
+                                      final long epochSecond) {
+        noNullElements(parameters);
+        notNull(codes);
+        isTrue(parameters.size() == codes.length, "There must be one code per parameters");
+
+        final boolean[] result = new boolean[codes.length];
+        for (int i = 0; i < codes.length; ++i) {
+            result[i] = totpVerifier(parameters.get(i), skew).verify(codes[i], epochSecond);
+        }
+        return result;
+    }
+
+    private final Algorithm algorithm;
+    private final int digits;
+    private final long period;
+    private final int skew;
+    private final SecretKeySpec key;
+    /**
+     * Only {@link #accept(int, long, UsedCodes)} needs the fingerprint, so it is not computed until then.
+     */
+    private Long fingerprint;
+
+    private TotpVerifier(final TOTPParameters parameters, final int skew) {
+        notNull(parameters);
+        inclusiveBetween(0, MAX_SKEW, skew, "Skew must be between 0 and %d", MAX_SKEW);
+
+        this.algorithm = parameters.algorithm().orElse(Algorithm.SHA1);
+        this.digits = parameters.digits().orElse(Digits.SIX).value();
+        this.period = parameters.period().get().value();
+        isTrue(period > 0, "Period must be positive");
+        this.skew = skew;
+        this.key = Hmac.key(parameters.secret(), algorithm);
+    }
+
+    /**
+     * Verifies the code at the given time.
+     *
+     * @param code
+     *         the code to verify
+     * @param epochSecond
+     *         the current time as the number of seconds since the Unix epoch
+     *
+     * @return true if the code is valid
+     */
+    public boolean verify(final int code, final long epochSecond) {
+        return matchingTimeStep(code, epochSecond) != NO_MATCH;
+    }
+
+    /**
+     * Verifies the code at the given time and returns the time step that matched. The time step can be used to
+     * prevent the same code from being used twice.
+     *
+     * @param code
+     *         the code to verify
+     * @param epochSecond
+     *         the current time as the number of seconds since the Unix epoch
+     *
+     * @return the time step that the code matched, or empty if the code is not valid
+     */
+    public OptionalLong verifyTimeStep(final int code, final long epochSecond) {
+        final long timeStep = matchingTimeStep(code, epochSecond);
+        return timeStep == NO_MATCH ? OptionalLong.empty() : OptionalLong.of(timeStep);
+    }
+
+    /**
+     * Verifies the code at the given time and accepts it only if it has not been accepted before. A code is remembered
+     * until its time step has left the skew window, after which it would not be valid anyway.
+     *
+     * @param code
+     *         the code to verify
+     * @param epochSecond
+     *         the current time as the number of seconds since the Unix epoch
+     * @param usedCodes
+     *         the codes that have been accepted, shared by all verifiers that should reject each other's codes
+     *
+     * @return true if the code is valid and has not been used before
+     */
+    public boolean accept(final int code, final long epochSecond, final UsedCodes usedCodes) {
+        notNull(usedCodes);
+
+        final long timeStep = matchingTimeStep(code, epochSecond);
+        return timeStep != NO_MATCH
+                && usedCodes.markUsed(fingerprint(), timeStep, (timeStep + skew + 1) * period, epochSecond);
+    }
+
+    private long fingerprint() {
+        Long result = fingerprint;
+        if (result == null) {
+            fingerprint = result = Hmac.fingerprint(key);
+        }
+        return result;
+    }
+
+    private long matchingTimeStep(final int code, final long epochSecond) {
+        final Hmac hmac = Hmac.forCurrentThread(algorithm);
+        final long currentTimeStep = Math.floorDiv(epochSecond, period);
+        long match = NO_MATCH;
+        try {
+            for (int offset = skew; offset >= -skew; --offset) {
+                final long timeStep = currentTimeStep + offset;
+                final long equal = constantTimeEquals(hmac.code(key, timeStep, digits), code);
+                // Select without branching; when several steps match the one closest to -skew wins
+                match = (timeStep & -equal) | (match & (equal - 1));
+            }
+        } finally {
+            hmac.clear();
+        }
+        return match;
+    }
+
+    /**
+     * @return 1 if the values are equal, otherwise 0
+     */
+    private static long constantTimeEquals(final int a, final int b) {
+        final int difference = a ^ b;
+        return 1 - ((difference | -difference) >>> 31);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
+/**
+ * Remembers the codes that have been accepted so that each code is only accepted once, as required by <a
+ * href="https://tools.ietf.org/html/rfc6238#section-5.2">RFC 6238, section 5.2</a>. See {@link
+ * TotpVerifier#accept(int, long, UsedCodes)}.
+ * <p>
+ * A used code is identified by the fingerprint of the secret and the time step it matched, and is remembered until
+ * it can no longer be accepted, i.e. until its time step has passed the skew window of the verifier. The memory used
+ * is fixed when the instance is created and does not depend on the number of accounts. The entries are split into
+ * stripes with one lock each, so concurrent verifications of different accounts rarely wait for each other.
+ * </p>
+ * <p>
+ * The capacity should be at least the number of codes accepted during one skew window, e.g. 50 000 codes per second
+ * with a period of 30 seconds and a skew of 1 needs a capacity of 4 500 000. Each code takes one {@code long} entry,
+ * and each stripe has one and a half entries per code of its share of the capacity, so an instance uses about 12 bytes
+ * per code, e.g. 54 MB for a capacity of 4 500 000. A code is stored in one of the {@value #PROBES} entries after
+ * either of the two entries it hashes to, or in a few overflow entries of the stripe when those are all in use, so
+ * while no more than the capacity is in use a code is in practice never forgotten before it expires. If the capacity
+ * is exceeded the entry that expires first is replaced, which could let a replayed code through.
+ * </p>
+ * <p>
+ * An entry keeps a 32-bit tag of the fingerprint and time step, not the fingerprint and time step themselves. A new
+ * code is therefore taken for a replay if a code with the same tag is remembered in the entries it is searched in,
+ * which happens about once in 200 million verifications when the capacity is in use. The user then has to wait for
+ * the next code. Instances are thread safe.
+ * </p>
+ */
+public final class UsedCodes {
+
+    /**
+     * The max number of codes.
+     */
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    /**
+     * The number of entries that are searched for a code after each of the two entries it hashes to.
+     */
+    private static final int PROBES = 16;
+
+    /**
+     * The number of entries in each stripe for codes whose probed entries are all in use. They are only searched when
+     * they hold a code that has not expired.
+     */
+    private static final int OVERFLOW = 64;
+
+    /**
+     * The least number of codes per stripe, so that the codes spread evenly enough over the stripes.
+     */
+    private static final int MIN_CODES_PER_STRIPE = 1024;
+
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Creates an instance sized for the given number of codes.
+     *
+     * @param capacity
+     *         the number of codes to remember
+     *
+     * @return the instance
+     */
+    public static UsedCodes usedCodes(final int capacity) {
+        return new UsedCodes(capacity);
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private UsedCodes(final int capacity) {
+        inclusiveBetween(1, MAX_CAPACITY, capacity, "Capacity must be between 1 and %d", MAX_CAPACITY);
+
+        final int stripeCount = Math.max(1, Math.min(STRIPES, Integer.highestOneBit(capacity / MIN_CODES_PER_STRIPE)));
+        final int codesPerStripe = (capacity + stripeCount - 1) / stripeCount;
+        // At most two thirds full when the capacity is in use
+        final int entriesPerStripe = Math.max(2 * PROBES, codesPerStripe + codesPerStripe / 2);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; ++i) {
+            stripes[i] = new Stripe(entriesPerStripe);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Records that the code of the given key and time step has been used.
+     *
+     * @param fingerprint
+     *         the fingerprint of the key
+     * @param timeStep
+     *         the time step, or counter, that the code matched
+     * @param expiresAt
+     *         the time, in seconds since the Unix epoch, when the code can no longer be accepted
+     * @param now
+     *         the current time in seconds since the Unix epoch
+     *
+     * @return true if the code had not been used before, false if it is a replay
+     */
+    boolean markUsed(final long fingerprint, final long timeStep, final long expiresAt, final long now) {
+        final long hash = mix(fingerprint ^ mix(timeStep));
+        // The upper half of the second hash is the tag and the lower half the second entry to search from
+        final long second = mix(hash);
+        final Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        return stripe.markUsed((int) (second >>> 32), expiresAt, now, (int) hash, (int) second);
+    }
+
+    private static final class Stripe {
+
+        private static final long EXPIRY_MASK = 0xFFFFFFFFL;
+
+        /**
+         * Each entry holds the tag of a code in its upper 32 bits and the time when the code expires, in seconds after
+         * the epoch of the stripe, in its lower 32 bits. An entry is free when its expiry time has passed, so entries
+         * never need to be removed. The overflow entries are the last {@value #OVERFLOW} entries.
+         */
+        private final long[] entries;
+        private final int size;
+        /**
+         * The second before the first use of the stripe, so unused entries, which expire at the epoch, are free.
+         */
+        private long epoch = Long.MIN_VALUE;
+        private long overflowExpiry;
+
+        private Stripe(final int size) {
+            this.entries = new long[size + OVERFLOW];
+            this.size = size;
+        }
+
+        synchronized boolean markUsed(final int tag, final long expiresAt, final long now, final int hash,
+                                      final int secondHash) {
+            if (epoch == Long.MIN_VALUE) {
+                epoch = now - 1;
+            }
+            final long time = now - epoch;
+            final long expiry = Math.max(1, Math.min(EXPIRY_MASK, expiresAt - epoch));
+            // Free entries have expired, so the entry that expires first is a free one if there is any
+            final int start = index(hash);
+            final int secondStart = index(secondHash);
+            int candidate = start;
+            for (int probe = 0; probe < PROBES; ++probe) {
+                final int i = start + probe < size ? start + probe : start + probe - size;
+                if (isUsed(entries[i], tag, time)) {
+                    return false;
+                }
+                if ((entries[i] & EXPIRY_MASK) < (entries[candidate] & EXPIRY_MASK)) {
+                    candidate = i;
+                }
+                final int j = secondStart + probe < size ? secondStart + probe : secondStart + probe - size;
+                if (isUsed(entries[j], tag, time)) {
+                    return false;
+                }
+                if ((entries[j] & EXPIRY_MASK) < (entries[candidate] & EXPIRY_MASK)) {
+                    candidate = j;
+                }
+            }
+            if (overflowExpiry > time) {
+                for (int i = size; i < entries.length; ++i) {
+                    if (isUsed(entries[i], tag, time)) {
+                        return false;
+                    }
+                }
+            }
+            if ((entries[candidate] & EXPIRY_MASK) > time) {
+                // All probed entries are in use, so use the overflow entries unless they are full too
+                for (int i = size; i < entries.length; ++i) {
+                    if ((entries[i] & EXPIRY_MASK) < (entries[candidate] & EXPIRY_MASK)) {
+                        candidate = i;
+                    }
+                }
+                if (candidate >= size) {
+                    overflowExpiry = Math.max(overflowExpiry, expiry);
+                }
+            }
+            entries[candidate] = (long) tag << 32 | expiry;
+            return true;
+        }
+
+        private int index(final int hash) {
+            return (int) ((Integer.toUnsignedLong(hash) * size) >>> 32);
+        }
+
+        private static boolean isUsed(final long entry, final int tag, final long time) {
+            return (entry & EXPIRY_MASK) > time && (int) (entry >>> 32) == tag;
+        }
+    }
+
+    /**
+     * The finalizer of SplitMix64, which spreads the bits of the fingerprint and time step over the whole long.
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int stripes(final int processors) {
+        return Math.min(256, powerOfTwo(processors * 4));
+    }
+
+    private static int powerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -16,6 +16,8 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
+
 /**
  * OPTIONAL: The algorithm may have the values:
  * <ul>
@@ -27,20 +29,39 @@ package se.sawano.java.security.otp.google.keyuri.parameters;
  */
 public enum Algorithm implements Parameter {
 
-    SHA1("SHA1"),
-    SHA256("SHA256"),
-    SHA512("SHA512");
+    SHA1("SHA1", 20),
+    SHA256("SHA256", 32),
+    SHA512("SHA512", 64);
 
     private final String value;
+    private final int keyLength;
+    private final String parameterPair;
 
-    Algorithm(final String value) {this.value = value;}
+    Algorithm(final String value, final int keyLength) {
+        this.value = value;
+        this.keyLength = keyLength;
+        this.parameterPair = "algorithm=" + value;
+    }
 
     public String value() {
         return value;
     }
 
+    /**
+     * Returns the recommended length in bytes of a key for this algorithm, i.e. the output length of the hash
+     * function. These are also the key lengths of the test vectors in RFC 6238.
+     */
+    public int keyLength() {
+        return keyLength;
+    }
+
     @Override
     public String parameterPair() {
-        return "algorithm=" + value;
+        return parameterPair;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append(parameterPair);
     }
 }
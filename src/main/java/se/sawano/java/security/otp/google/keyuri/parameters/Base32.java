@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Base32 encoding according to <a href="https://tools.ietf.org/html/rfc4648#section-6">RFC 4648</a>, without padding.
+ * <p>
+ * The encoding only branches on the length of the input and maps each 5 bit group to its symbol with arithmetic
+ * instead of indexing a table, so the time it takes does not depend on the bytes of the secret.
+ * </p>
+ * <p>
+ * The decoding is table driven and also accepts padded and lower case input. Input that no encoding produces, i.e. a
+ * number of symbols that leaves 1, 3 or 6 symbols after the last full group of 8, or a last symbol with bits that do
+ * not belong to any byte, is rejected.
+ * </p>
+ */
+final class Base32 {
+
+    private static final char PADDING = '=';
+
+    /**
+     * The value of each ASCII symbol, or -1 if it is not a Base32 symbol.
+     */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 26; ++i) {
+            VALUES['A' + i] = (byte) i;
+            VALUES['a' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; ++i) {
+            VALUES['2' + i] = (byte) (26 + i);
+        }
+    }
+
+    private Base32() {
+    }
+
+    /**
+     * Returns the number of symbols of the unpadded encoding of the given number of bytes.
+     */
+    static int encodedLength(final int length) {
+        return (int) ((length * 8L + 4) / 5);
+    }
+
+    /**
+     * Encodes {@code length} bytes of {@code src}, starting at {@code srcOffset}, into {@code dst}, starting at {@code
+     * offset}, and returns the offset after the last symbol.
+     */
+    static int encode(final byte[] src, final int srcOffset, final int length, final char[] dst, final int offset) {
+        int buffer = 0;
+        int bits = 0;
+        int j = offset;
+        for (int i = srcOffset; i < srcOffset + length; ++i) {
+            buffer = (buffer << 8) | (src[i] & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                dst[j++] = (char) symbol((buffer >>> bits) & 0x1F);
+            }
+        }
+        if (bits > 0) {
+            dst[j++] = (char) symbol((buffer << (5 - bits)) & 0x1F);
+        }
+        return j;
+    }
+
+    /**
+     * Encodes {@code length} bytes of {@code src}, starting at {@code offset}, to the given appendable. Only absolute
+     * gets are used, so the buffer may be shared.
+     */
+    static void encode(final ByteBuffer src, final int offset, final int length, final Appendable out) throws IOException {
+        int buffer = 0;
+        int bits = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            buffer = (buffer << 8) | (src.get(i) & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                out.append((char) symbol((buffer >>> bits) & 0x1F));
+            }
+        }
+        if (bits > 0) {
+            out.append((char) symbol((buffer << (5 - bits)) & 0x1F));
+        }
+    }
+
+    /**
+     * Maps 0-25 to 'A'-'Z' and 26-31 to '2'-'7' without branching.
+     */
+    private static int symbol(final int value) {
+        // (25 - value) >> 31 is all ones if value > 25, otherwise zero
+        return 'A' + value + (((25 - value) >> 31) & ('2' - 26 - 'A'));
+    }
+
+    /**
+     * Returns the number of symbols of the encoded value, excluding any padding.
+     */
+    static int unpaddedLength(final CharSequence src) {
+        int length = src.length();
+        while (length > 0 && src.charAt(length - 1) == PADDING) {
+            --length;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the number of bytes that the given number of symbols decode to.
+     */
+    static int decodedLength(final int symbols) {
+        return (int) (symbols * 5L / 8);
+    }
+
+    /**
+     * Decodes the first {@code length} symbols of {@code src} into {@code dst}, starting at {@code offset}, and returns
+     * the offset after the last byte.
+     *
+     * @throws IllegalArgumentException
+     *         if a symbol is not a Base32 symbol, or the symbols are not a complete encoding
+     */
+    static int decode(final CharSequence src, final int length, final byte[] dst, final int offset) {
+        final int remainder = length & 7;
+        if (remainder == 1 || remainder == 3 || remainder == 6) {
+            throw new IllegalArgumentException("Secret is not valid Base32");
+        }
+        int buffer = 0;
+        int bits = 0;
+        int j = offset;
+        for (int i = 0; i < length; ++i) {
+            final char c = src.charAt(i);
+            final int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Secret is not valid Base32");
+            }
+            buffer = (buffer << 5) | value;
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                dst[j++] = (byte) (buffer >>> bits);
+            }
+        }
+        if ((buffer & ((1 << bits) - 1)) != 0) {
+            throw new IllegalArgumentException("Secret is not valid Base32");
+        }
+        return j;
+    }
+}
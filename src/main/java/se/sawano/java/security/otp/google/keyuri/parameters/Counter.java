@@ -16,6 +16,8 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
+
 /**
  * REQUIRED if type is hotp: The counter parameter is required when provisioning a key for use with HOTP. It will set
  * the initial counter value.
@@ -29,6 +31,7 @@ public final class Counter implements Parameter {
     }
 
     private final long value;
+    private String parameterPair;
 
     private Counter(final long value) {
         this.value = value;
@@ -40,6 +43,16 @@ public final class Counter implements Parameter {
 
     @Override
     public String parameterPair() {
-        return "counter=" + Long.toString(value);
+        String result = parameterPair;
+        if (result == null) {
+            parameterPair = result = "counter=" + Long.toString(value);
+        }
+        return result;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append("counter=");
+        Decimal.append(value, out);
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import java.io.IOException;
+
+/**
+ * Writes decimal numbers without going through {@link Long#toString(long)}.
+ */
+final class Decimal {
+
+    private Decimal() {
+    }
+
+    static void append(final long value, final Appendable out) throws IOException {
+        // Work with negative numbers so that Long.MIN_VALUE does not need special treatment
+        long remaining = value;
+        if (value < 0) {
+            out.append('-');
+        }
+        else {
+            remaining = -value;
+        }
+        long divisor = 1;
+        while (remaining / divisor <= -10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' - remaining / divisor));
+            remaining %= divisor;
+            divisor /= 10;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
+
 /**
  * OPTIONAL: The digits parameter may have the values 6 or 8, and determines how long of a one-time passcode to display
  * to the user. The default is 6.
@@ -29,9 +31,11 @@ public enum Digits implements Parameter {
     EIGHT(8);
 
     private final int value;
+    private final String parameterPair;
 
     Digits(final int value) {
         this.value = value;
+        this.parameterPair = "digits=" + value;
     }
 
     public int value() {
@@ -40,6 +44,11 @@ public enum Digits implements Parameter {
 
     @Override
     public String parameterPair() {
-        return "digits=" + value;
+        return parameterPair;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append(parameterPair);
     }
 }
@@ -16,50 +16,154 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import se.sawano.java.security.otp.google.keyuri.ScratchBuffers;
+
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.Stream.concat;
 import static org.apache.commons.lang3.Validate.*;
 
+@SuppressWarnings("OptionalUsedAsFieldOrParameterType")
 final class GenericParameters {
 
     private final Secret secret;
-    private final Map<Class<? extends Parameter>, ? extends Parameter> parameters;
+    /*
+     * One slot per parameter type instead of a map. The Optionals are created once here so that the accessors neither
+     * allocate nor hash.
+     */
+    private final Optional<Algorithm> algorithm;
+    private final Optional<Counter> counter;
+    private final Optional<Digits> digits;
+    private final Optional<Issuer> issuer;
+    private final Optional<Period> period;
+    private String uriString;
 
     GenericParameters(final Secret secret,
                       final List<? extends Parameter> parameters) {
-        notNull(secret);
+        this(parameters, notNull(secret));
+    }
+
+    /**
+     * @param secret
+     *         the secret or {@code null} if the instance is only used to create a {@link #uriStringPrefix(List)}
+     */
+    private GenericParameters(final List<? extends Parameter> parameters, final Secret secret) {
         noNullElements(parameters);
 
-        this.secret = secret;
-        this.parameters = toMapAndFailOnDuplicates(parameters);
-        assertNoSecretInOptionalList();
-    }
+        Algorithm algorithm = null;
+        Counter counter = null;
+        Digits digits = null;
+        Issuer issuer = null;
+        Period period = null;
+        for (final Parameter parameter : parameters) {
+            isTrue(!(parameter instanceof Secret), "Secret is not allowed as an optional parameter");
+            if (parameter instanceof Algorithm) {
+                algorithm = failOnDuplicate(algorithm, (Algorithm) parameter);
+            }
+            else if (parameter instanceof Counter) {
+                counter = failOnDuplicate(counter, (Counter) parameter);
+            }
+            else if (parameter instanceof Digits) {
+                digits = failOnDuplicate(digits, (Digits) parameter);
+            }
+            else if (parameter instanceof Issuer) {
+                issuer = failOnDuplicate(issuer, (Issuer) parameter);
+            }
+            else if (parameter instanceof Period) {
+                period = failOnDuplicate(period, (Period) parameter);
+            }
+            else {
+                throw new IllegalArgumentException("Unknown parameter: " + parameter.getClass());
+            }
+        }
 
-    private void assertNoSecretInOptionalList() {
-        isTrue(!get(Secret.class).isPresent(), "Secret is not allowed as an optional parameter");
+        this.secret = secret;
+        this.algorithm = Optional.ofNullable(algorithm);
+        this.counter = Optional.ofNullable(counter);
+        this.digits = Optional.ofNullable(digits);
+        this.issuer = Optional.ofNullable(issuer);
+        this.period = Optional.ofNullable(period);
     }
 
-    private static Map<Class<? extends Parameter>, Parameter> toMapAndFailOnDuplicates(final List<? extends Parameter> parameters) {
-        return parameters.stream().collect(toMap(k -> k.getClass(), k -> k));
+    private static <T extends Parameter> T failOnDuplicate(final T existing, final T parameter) {
+        if (existing != null) {
+            throw new IllegalStateException("Duplicate key " + parameter.getClass().getName());
+        }
+        return parameter;
     }
 
     /**
      * Returns the parameters as an URI encoded string in the form of a URI query. The parameters will be in
      * alphabetical order. E.g.: {@code algorithm=SHA1&digits=6&issuer=My%20Co&period=30&secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ}
+     * <p>
+     * The string is created on first use and then cached, unless the secret is off-heap. The buffer is borrowed from
+     * {@link ScratchBuffers}.
+     * </p>
      *
      * @return the URI encoded query string
      */
     public String asUriString() {
-        return concat(Stream.of(secret), parameters.values().stream())
-                .map(Parameter::parameterPair)
-                .sorted()
-                .collect(joining("&", "?", ""));
+        String result = uriString;
+        if (result == null) {
+            result = ScratchBuffers.render(128, this::appendUncached);
+            if (!secret.isOffHeap()) {
+                uriString = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends the same query string as {@link #asUriString()} to the given appendable. The cached string is used if
+     * there is one, otherwise the parameters are written straight into the appendable without caching them.
+     *
+     * @param out
+     *         the appendable to write the query to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void appendUriString(final Appendable out) throws IOException {
+        final String cached = uriString;
+        if (cached != null) {
+            out.append(cached);
+            return;
+        }
+        appendUncached(out);
+    }
+
+    private void appendUncached(final Appendable out) throws IOException {
+        appendUriStringPrefix(out);
+        secret.appendParameterPair(out);
+    }
+
+    /**
+     * Returns the part of the URI query that precedes the secret for the given optional parameters. E.g.: {@code
+     * ?algorithm=SHA1&digits=6&issuer=My%20Co&period=30&}
+     */
+    static String uriStringPrefix(final List<? extends Parameter> parameters) {
+        return ScratchBuffers.render(64, new GenericParameters(parameters, null)::appendUriStringPrefix);
+    }
+
+    /**
+     * Writes the optional parameters in the alphabetical order of their names. The secret always goes last. This is
+     * the same order as when sorting the parameter pairs since the names are unique.
+     */
+    private void appendUriStringPrefix(final Appendable out) throws IOException {
+        out.append('?');
+        appendIfPresent(algorithm, out);
+        appendIfPresent(counter, out);
+        appendIfPresent(digits, out);
+        appendIfPresent(issuer, out);
+        appendIfPresent(period, out);
+    }
+
+    private static void appendIfPresent(final Optional<? extends Parameter> parameter, final Appendable out) throws IOException {
+        if (parameter.isPresent()) {
+            parameter.get().appendParameterPair(out);
+            out.append('&');
+        }
     }
 
     public Secret secret() {
@@ -67,19 +171,23 @@ final class GenericParameters {
     }
 
     public Optional<Issuer> issuer() {
-        return get(Issuer.class);
+        return issuer;
     }
 
     public Optional<Algorithm> algorithm() {
-        return get(Algorithm.class);
+        return algorithm;
     }
 
     public Optional<Digits> digits() {
-        return get(Digits.class);
+        return digits;
+    }
+
+    public Optional<Period> period() {
+        return period;
     }
 
-    public <T extends Parameter> Optional<T> get(final Class<T> clazz) {
-        return Optional.ofNullable(parameters.get(clazz)).map(clazz::cast);
+    public Optional<Counter> counter() {
+        return counter;
     }
 
 }
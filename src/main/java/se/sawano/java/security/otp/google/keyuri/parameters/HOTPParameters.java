@@ -16,6 +16,7 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.apache.commons.lang3.Validate.isTrue;
@@ -34,12 +35,12 @@ public class HOTPParameters {
     }
 
     private void validateForHOTP() {
-        isTrue(get(Counter.class).isPresent(), "'Counter' is required for type HOTP");
-        isTrue(!get(Period.class).isPresent(), "'Period' is not allowed for type HOTP");
+        isTrue(parameters.counter().isPresent(), "'Counter' is required for type HOTP");
+        isTrue(!parameters.period().isPresent(), "'Period' is not allowed for type HOTP");
     }
 
     public Optional<Counter> counter() {
-        return get(Counter.class);
+        return parameters.counter();
     }
 
     public Secret secret() {
@@ -47,22 +48,32 @@ public class HOTPParameters {
     }
 
     public Optional<Issuer> issuer() {
-        return get(Issuer.class);
+        return parameters.issuer();
     }
 
     public Optional<Algorithm> algorithm() {
-        return get(Algorithm.class);
+        return parameters.algorithm();
     }
 
     public Optional<Digits> digits() {
-        return get(Digits.class);
+        return parameters.digits();
     }
 
     public String asUriString() {
         return parameters.asUriString();
     }
 
-    private <T extends Parameter> Optional<T> get(final Class<T> clazz) {
-        return parameters.get(clazz);
+    /**
+     * Appends the same query string as {@link #asUriString()} to the given appendable. The cached string is used if
+     * there is one, otherwise the parameters are written straight into the appendable without caching them.
+     *
+     * @param out
+     *         the appendable to write the query to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void appendUriString(final Appendable out) throws IOException {
+        parameters.appendUriString(out);
     }
 }
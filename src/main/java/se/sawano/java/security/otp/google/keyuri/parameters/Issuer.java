@@ -16,10 +16,14 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import se.sawano.java.security.otp.google.keyuri.InternCache;
 import se.sawano.java.security.otp.google.keyuri.UriEncoder;
 
+import java.io.IOException;
+
 import static org.apache.commons.lang3.Validate.inclusiveBetween;
 import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notNull;
 
 /**
  * STRONGLY RECOMMENDED: The issuer parameter is a string value indicating the provider or service this account is
@@ -40,11 +44,33 @@ public final class Issuer implements Parameter {
      */
     public static final int MAX_LENGTH = 200;
 
+    private static final InternCache<Issuer> CACHE = new InternCache<>(Issuer::newCached);
+
     public static Issuer issuer(final String value) {
         return new Issuer(value);
     }
 
+    /**
+     * Returns a shared issuer with the given value, trimmed, which is validated and URI encoded only the first time.
+     * This is intended for the few issuers, e.g. tenant names, that most key URIs use. See {@link InternCache}.
+     *
+     * @param value
+     *         the issuer
+     *
+     * @return the shared issuer
+     */
+    public static Issuer cached(final String value) {
+        return CACHE.get(value);
+    }
+
+    private static Issuer newCached(final String value) {
+        final Issuer issuer = new Issuer(value);
+        issuer.parameterPair();
+        return issuer;
+    }
+
     private final String value;
+    private String parameterPair;
 
     private Issuer(final String value) {
         notBlank(value);
@@ -60,6 +86,15 @@ public final class Issuer implements Parameter {
 
     @Override
     public String parameterPair() {
-        return "issuer=" + UriEncoder.encode(value);
+        String result = parameterPair;
+        if (result == null) {
+            parameterPair = result = "issuer=" + UriEncoder.encode(value);
+        }
+        return result;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append(parameterPair());
     }
 }
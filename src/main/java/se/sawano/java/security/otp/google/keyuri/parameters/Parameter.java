@@ -16,14 +16,36 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
+
 interface Parameter {
 
     /**
      * The URI style parameter string. E.g. secret=ENJDVNXVNESP7N2VIOHSQG5RVID77N7P. The value will be URI encoded as
      * appropriate so there's no need to encode it again.
+     * <p>
+     * The pair is created at most once per instance, except for off-heap secrets, and the same string is returned on
+     * each call. Implementations cache it in a plain field with a racy single-check: the pair is always the same and
+     * strings are immutable, so a thread that does not see the cached pair only creates an equal one. Other cached
+     * strings in this library, e.g. {@link GenericParameters#asUriString()}, rely on the same reasoning. It only holds
+     * for immutable values whose state is in final fields, such as {@code String}; other cached objects, e.g. a
+     * {@link java.net.URI}, have to be published safely, for example through a volatile field.
+     * </p>
      *
      * @return the pair
      */
     String parameterPair();
 
+    /**
+     * Appends the {@link #parameterPair()} to the given appendable. No garbage is created, apart from the pair itself
+     * the first time for parameters that cache it.
+     *
+     * @param out
+     *         the appendable to write the pair to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    void appendParameterPair(Appendable out) throws IOException;
+
 }
@@ -21,6 +21,7 @@ import java.util.Objects;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.Validate.isTrue;
 
 public class ParametersBuilder<T extends ParametersBuilder> {
 
@@ -51,6 +52,21 @@ public class ParametersBuilder<T extends ParametersBuilder> {
             final GenericParameters parameters = new GenericParameters(secret, optionalParameters);
             return new TOTPParameters(parameters);
         }
+
+        /**
+         * Creates a template with the parameters of this builder. The secret must not be set since it is provided
+         * when the template is applied.
+         *
+         * @return the template
+         */
+        public ParametersTemplate<TOTPParameters> createTemplate() {
+            isTrue(secret == null, "Secret is not allowed in a template");
+            isTrue(period != null, "'Period' is required for type TOTP");
+
+            return new ParametersTemplate<>(Stream.of(algorithm, digits, issuer, period)
+                                                  .filter(Objects::nonNull)
+                                                  .collect(toList()), TOTPParameters::new);
+        }
     }
 
     public static final class HotpParametersBuilder extends ParametersBuilder<HotpParametersBuilder> {
@@ -71,6 +87,21 @@ public class ParametersBuilder<T extends ParametersBuilder> {
 
             return new HOTPParameters(new GenericParameters(secret, optionalParameters));
         }
+
+        /**
+         * Creates a template with the parameters of this builder. The secret must not be set since it is provided
+         * when the template is applied.
+         *
+         * @return the template
+         */
+        public ParametersTemplate<HOTPParameters> createTemplate() {
+            isTrue(secret == null, "Secret is not allowed in a template");
+            isTrue(counter != null, "'Counter' is required for type HOTP");
+
+            return new ParametersTemplate<>(Stream.of(algorithm, digits, issuer, counter)
+                                                  .filter(Objects::nonNull)
+                                                  .collect(toList()), HOTPParameters::new);
+        }
     }
 
     Secret secret;
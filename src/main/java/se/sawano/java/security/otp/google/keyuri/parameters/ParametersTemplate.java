@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A set of parameters without a secret, used when creating many key URIs that only differ in account and secret. The
+ * URI query of the parameters is encoded once when the template is created.
+ *
+ * @param <T>
+ *         the type of parameters the template creates, {@link TOTPParameters} or {@link HOTPParameters}
+ *
+ * @see ParametersBuilder.TotpParametersBuilder#createTemplate()
+ * @see ParametersBuilder.HotpParametersBuilder#createTemplate()
+ */
+public final class ParametersTemplate<T> {
+
+    private final List<Parameter> parameters;
+    private final Function<GenericParameters, T> factory;
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    private final Optional<Issuer> issuer;
+    private final String uriStringPrefix;
+
+    ParametersTemplate(final List<? extends Parameter> parameters, final Function<GenericParameters, T> factory) {
+        noNullElements(parameters);
+        notNull(factory);
+
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+        this.factory = factory;
+        this.issuer = parameters.stream().filter(Issuer.class::isInstance).map(Issuer.class::cast).findFirst();
+        this.uriStringPrefix = GenericParameters.uriStringPrefix(parameters);
+    }
+
+    /**
+     * Creates parameters from this template with the given secret.
+     *
+     * @param secret
+     *         the secret
+     *
+     * @return the parameters
+     */
+    public T withSecret(final Secret secret) {
+        return factory.apply(new GenericParameters(secret, parameters));
+    }
+
+    public Optional<Issuer> issuer() {
+        return issuer;
+    }
+
+    /**
+     * Appends the same query string as {@code withSecret(secret).asUriString()} would return. Only the secret is
+     * encoded, the rest of the query is copied from this template.
+     *
+     * @param secret
+     *         the secret
+     * @param out
+     *         the appendable to write the query to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void appendUriString(final Secret secret, final Appendable out) throws IOException {
+        notNull(secret);
+
+        out.append(uriStringPrefix);
+        secret.appendParameterPair(out);
+    }
+}
@@ -16,6 +16,7 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
 import java.time.Duration;
 
 /**
@@ -31,6 +32,7 @@ public final class Period implements Parameter {
     }
 
     private final Duration value;
+    private String parameterPair;
 
     private Period(final Duration value) {
         this.value = value;
@@ -42,6 +44,15 @@ public final class Period implements Parameter {
 
     @Override
     public String parameterPair() {
-        return "period=" + value();
+        String result = parameterPair;
+        if (result == null) {
+            parameterPair = result = "period=" + value();
+        }
+        return result;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append(parameterPair());
     }
 }
@@ -16,51 +16,336 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
-import org.apache.commons.codec.binary.Base32;
-
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.security.auth.DestroyFailedException;
+import javax.security.auth.Destroyable;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 /**
  * REQUIRED: The secret parameter is an arbitrary key value encoded in Base32 according to RFC 3548.
  * <p>
  * See https://github.com/google/google-authenticator/wiki/Key-Uri-Format#secret
+ * </p>
+ * <p>
+ * A secret created with {@link #offHeap(byte[])} keeps the key in direct memory instead of as a Base32 string on the
+ * heap. It is not copied by the garbage collector, does not end up in heap dumps and can be zeroed with {@link
+ * #destroy()} or {@link #close()}, e.g. in a try-with-resources statement. Its Base32 encoding is written directly to
+ * the URI when needed. Such a secret takes less than a third of the heap of a secret of 20 bytes on the heap, and has
+ * no reference object for the garbage collector to track. Its memory is only released when it is destroyed or closed,
+ * so that must be done once the key is no longer needed.
+ * </p>
  */
-public final class Secret implements Parameter, Externalizable {
+public final class Secret implements Parameter, Externalizable, Destroyable, AutoCloseable {
+
+    /**
+     * The max size of the buffer that is filled with random bytes at once when generating many secrets.
+     */
+    private static final int RANDOM_BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(Secret::newSecureRandom);
 
     public static Secret secret(final byte[] value) {
         return new Secret(value);
     }
 
+    /**
+     * Generates a random secret with the recommended key length of the algorithm.
+     *
+     * @param algorithm
+     *         the algorithm the secret will be used with
+     *
+     * @return the secret
+     *
+     * @see Algorithm#keyLength()
+     */
+    public static Secret generate(final Algorithm algorithm) {
+        notNull(algorithm);
+
+        final byte[] key = new byte[algorithm.keyLength()];
+        RANDOM.get().nextBytes(key);
+        final Secret secret = new Secret(key);
+        Arrays.fill(key, (byte) 0);
+        return secret;
+    }
+
+    /**
+     * Generates many random secrets with the recommended key length of the algorithm. The random bytes of many secrets
+     * are generated at once, which is a lot faster than one secret at a time.
+     *
+     * @param count
+     *         the number of secrets to generate
+     * @param algorithm
+     *         the algorithm the secrets will be used with
+     *
+     * @return the secrets
+     *
+     * @see Algorithm#keyLength()
+     */
+    public static List<Secret> generate(final int count, final Algorithm algorithm) {
+        isTrue(count >= 0, "Count may not be negative");
+        notNull(algorithm);
+
+        final int keyLength = algorithm.keyLength();
+        final int keysPerBuffer = Math.max(1, RANDOM_BUFFER_SIZE / keyLength);
+        final byte[] buffer = new byte[Math.min(count, keysPerBuffer) * keyLength];
+        final SecureRandom random = RANDOM.get();
+        final List<Secret> secrets = new ArrayList<>(count);
+        while (secrets.size() < count) {
+            random.nextBytes(buffer);
+            final int keys = Math.min(count - secrets.size(), keysPerBuffer);
+            for (int i = 0; i < keys; ++i) {
+                secrets.add(new Secret(buffer, i * keyLength, keyLength));
+            }
+        }
+        Arrays.fill(buffer, (byte) 0);
+        return secrets;
+    }
+
+    /**
+     * Uses a DRBG where available, i.e. on Java 9 and later, and otherwise the default {@code SecureRandom}. Each
+     * thread has its own instance since {@code SecureRandom} instances synchronize internally.
+     */
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (final NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * Creates a secret that keeps the key in direct memory, shared with other off-heap secrets, until it is destroyed.
+     * The caller should zero the given array afterwards. The memory of a secret that is never destroyed is never
+     * released.
+     *
+     * @param value
+     *         the key
+     *
+     * @return the secret
+     *
+     * @see #destroy()
+     */
+    public static Secret offHeap(final byte[] value) {
+        notNull(value);
+
+        final SecretSlab slab = SecretSlab.forLength(value.length);
+        return new Secret(slab, slab.allocate(), value);
+    }
+
+    /**
+     * Creates a secret from its Base32 encoding, which may be padded and in lower case.
+     *
+     * @param value
+     *         the Base32 encoded secret
+     *
+     * @return the secret
+     *
+     * @throws IllegalArgumentException
+     *         if the value is empty or not valid Base32
+     */
+    public static Secret fromBase32(final CharSequence value) {
+        notNull(value);
+        final int length = Base32.unpaddedLength(value);
+        isTrue(Base32.decodedLength(length) > 0, "Secret may not be empty");
+
+        final byte[] bytes = new byte[Base32.decodedLength(length)];
+        Base32.decode(value, length, bytes, 0);
+        return new Secret(bytes);
+    }
+
     public static final String BASE32_PADDING = "=";
 
+    /**
+     * The Base32 encoded key, or null if the key is off-heap.
+     */
     private final String value;
+    /**
+     * The slab and slot of the key if the key is off-heap. The length of the key is the slot size.
+     */
+    private final SecretSlab slab;
+    private final int slot;
+    private boolean destroyed;
+    private String parameterPair;
 
     private Secret(final byte[] value) {
-        notNull(value);
-
-        this.value = removePadding(base32Encode(value));
+        this(notNull(value), 0, value.length);
     }
 
-    private static String base32Encode(final byte[] value) {
-        return new Base32(BASE32_PADDING.getBytes()[0]).encodeToString(value);
+    private Secret(final byte[] value, final int offset, final int length) {
+        final char[] encoded = new char[Base32.encodedLength(length)];
+        Base32.encode(value, offset, length, encoded, 0);
+        this.value = new String(encoded);
+        this.slab = null;
+        this.slot = 0;
     }
 
-    private static String removePadding(final String base32Value) {
-        return base32Value.replace(BASE32_PADDING, "");
+    /**
+     * Copies the key while holding the lock of the secret, which is also held when the key is read.
+     */
+    private Secret(final SecretSlab slab, final int slot, final byte[] value) {
+        this.value = null;
+        this.slab = slab;
+        this.slot = slot;
+        synchronized (this) {
+            final ByteBuffer chunk = slab.chunk(slot);
+            final int offset = slab.offset(slot);
+            for (int i = 0; i < value.length; ++i) {
+                chunk.put(offset + i, value[i]);
+            }
+        }
     }
 
+    /**
+     * Returns the Base32 encoding of the key. For an off-heap secret this creates a string on the heap, use {@link
+     * #appendParameterPair(Appendable)} or {@link #writeKeyBytes(byte[])} instead where possible.
+     */
     public String value() {
-        return value;
+        if (value != null) {
+            return value;
+        }
+        final StringBuilder builder = new StringBuilder(Base32.encodedLength(keyLength()));
+        try {
+            appendValue(builder);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the number of bytes of the raw key, i.e. the size of the array returned by {@link #keyBytes()}.
+     */
+    public int keyLength() {
+        return value != null ? Base32.decodedLength(value.length()) : slab.slotSize();
+    }
+
+    /**
+     * Returns the raw key, e.g. for an HMAC engine.
+     *
+     * @return a new array with the key
+     */
+    public byte[] keyBytes() {
+        final byte[] key = new byte[keyLength()];
+        writeKeyBytes(key);
+        return key;
+    }
+
+    /**
+     * Writes the raw key to the beginning of the given array, so that the caller can reuse or clear the array.
+     *
+     * @param dest
+     *         the array to write the key to, at least {@link #keyLength()} bytes
+     *
+     * @return the number of bytes written
+     */
+    public int writeKeyBytes(final byte[] dest) {
+        notNull(dest);
+        isTrue(dest.length >= keyLength(), "Destination must be at least %d bytes", keyLength());
+
+        if (value != null) {
+            return Base32.decode(value, value.length(), dest, 0);
+        }
+        synchronized (this) {
+            checkNotDestroyed();
+            final ByteBuffer chunk = slab.chunk(slot);
+            final int offset = slab.offset(slot);
+            for (int i = 0; i < slab.slotSize(); ++i) {
+                dest[i] = chunk.get(offset + i);
+            }
+        }
+        return slab.slotSize();
+    }
+
+    /**
+     * Returns true if the key is kept off-heap, see {@link #offHeap(byte[])}. Strings that contain the key of such a
+     * secret should not be cached.
+     */
+    public boolean isOffHeap() {
+        return value == null;
     }
 
     @Override
     public String parameterPair() {
-        return "secret=" + value;
+        if (value == null) {
+            // The key of an off-heap secret must not be kept on the heap
+            return "secret=" + value();
+        }
+        String result = parameterPair;
+        if (result == null) {
+            parameterPair = result = "secret=" + value;
+        }
+        return result;
+    }
+
+    @Override
+    public void appendParameterPair(final Appendable out) throws IOException {
+        out.append("secret=");
+        appendValue(out);
+    }
+
+    private void appendValue(final Appendable out) throws IOException {
+        if (value != null) {
+            out.append(value);
+            return;
+        }
+        synchronized (this) {
+            checkNotDestroyed();
+            Base32.encode(slab.chunk(slot), slab.offset(slot), slab.slotSize(), out);
+        }
+    }
+
+    /**
+     * Zeroes the key of an off-heap secret and releases its memory. The secret can not be used afterwards. Secrets on
+     * the heap can not be destroyed.
+     *
+     * @throws DestroyFailedException
+     *         if the secret is not off-heap
+     */
+    @Override
+    public void destroy() throws DestroyFailedException {
+        if (value != null) {
+            throw new DestroyFailedException("Only off-heap secrets can be destroyed");
+        }
+        close();
+    }
+
+    /**
+     * Destroys an off-heap secret, see {@link #destroy()}. Closing a secret on the heap does nothing, so any secret can
+     * be used in a try-with-resources statement.
+     */
+    @Override
+    public synchronized void close() {
+        if (value == null && !destroyed) {
+            destroyed = true;
+            slab.free(slot);
+        }
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * Reads of the key and {@link #destroy()} are synchronized, so a destroyed secret can never read the key of
+     * another secret that has reused its memory.
+     */
+    private void checkNotDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException("Secret has been destroyed");
+        }
     }
 
     @Override
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Direct memory for the keys of off-heap {@link Secret}s of one length. Keys are packed into large chunks of slots, so
+ * each key only costs its own bytes outside the heap instead of one direct buffer, and its cleaner, per key. A bitmap
+ * tracks the slots in use, and the slot of a freed key is zeroed and reused.
+ * <p>
+ * A key is identified by its slot number, so an off-heap secret only needs its slab and an int. Slots are freed
+ * explicitly when their secrets are destroyed, there is no reference object per key for the garbage collector to track.
+ * </p>
+ * <p>
+ * Each key length has a few slabs with one lock each, picked by thread, so threads that create and destroy secrets at
+ * the same time rarely wait for each other. The chunks are published through a volatile field, so keys are read
+ * without taking the lock of the slab.
+ * </p>
+ */
+final class SecretSlab {
+
+    static final int MAX_KEY_LENGTH = 1 << 20;
+
+    /**
+     * The nominal size of each chunk. Chunks of longer keys have room for one key.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    private static final ConcurrentMap<Integer, SecretSlab[]> SLABS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the slab that the current thread should use for keys of the given length.
+     */
+    static SecretSlab forLength(final int length) {
+        inclusiveBetween(1, MAX_KEY_LENGTH, length, "Key must be between 1 and " + MAX_KEY_LENGTH + " bytes");
+
+        SecretSlab[] slabs = SLABS.get(length);
+        if (slabs == null) {
+            slabs = SLABS.computeIfAbsent(length, SecretSlab::newStripes);
+        }
+        return slabs[(int) Thread.currentThread().getId() & (slabs.length - 1)];
+    }
+
+    private static SecretSlab[] newStripes(final int length) {
+        final SecretSlab[] slabs = new SecretSlab[STRIPES];
+        for (int i = 0; i < slabs.length; ++i) {
+            slabs[i] = new SecretSlab(length, CHUNK_SIZE);
+        }
+        return slabs;
+    }
+
+    private final int slotSize;
+    private final int slotsPerChunk;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    /**
+     * One bit per slot, set while the slot is in use.
+     */
+    private long[] used = new long[0];
+    /**
+     * No slot below this one is free.
+     */
+    private int firstFree;
+
+    SecretSlab(final int slotSize, final int chunkSize) {
+        this.slotSize = slotSize;
+        this.slotsPerChunk = Math.max(1, chunkSize / slotSize);
+    }
+
+    int slotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Allocates a zeroed slot, the lowest one that is free.
+     *
+     * @return the slot number
+     */
+    synchronized int allocate() {
+        final int capacity = chunks.length * slotsPerChunk;
+        int slot = capacity;
+        for (int i = firstFree >>> 6; i < used.length; ++i) {
+            final long free = ~used[i];
+            if (free != 0) {
+                // Bits past the capacity are clear, so such a slot is the first one of a new chunk
+                slot = Math.min(capacity, (i << 6) + Long.numberOfTrailingZeros(free));
+                break;
+            }
+        }
+        if (slot == capacity) {
+            grow();
+        }
+        used[slot >>> 6] |= 1L << slot;
+        firstFree = slot + 1;
+        return slot;
+    }
+
+    private void grow() {
+        isTrue(chunks.length < Integer.MAX_VALUE / slotsPerChunk - 1, "Too many keys of length %d", slotSize);
+
+        final ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = ByteBuffer.allocateDirect(slotsPerChunk * slotSize);
+        used = Arrays.copyOf(used, (int) (((long) grown.length * slotsPerChunk + 63) >>> 6));
+        chunks = grown;
+    }
+
+    /**
+     * Returns the chunk of the slot. Only absolute gets and puts may be used on it since it is shared.
+     */
+    ByteBuffer chunk(final int slot) {
+        return chunks[slot / slotsPerChunk];
+    }
+
+    int offset(final int slot) {
+        return (slot % slotsPerChunk) * slotSize;
+    }
+
+    /**
+     * Zeroes the slot and makes it available for new keys.
+     */
+    synchronized void free(final int slot) {
+        isTrue(slot >= 0 && slot < chunks.length * slotsPerChunk && (used[slot >>> 6] & 1L << slot) != 0,
+               "Slot %d is not in use", slot);
+
+        final ByteBuffer chunk = chunk(slot);
+        final int offset = offset(slot);
+        for (int i = 0; i < slotSize; ++i) {
+            chunk.put(offset + i, (byte) 0);
+        }
+        used[slot >>> 6] &= ~(1L << slot);
+        firstFree = Math.min(firstFree, slot);
+    }
+
+    private static int stripes(final int processors) {
+        return Math.min(16, powerOfTwo(processors));
+    }
+
+    private static int powerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
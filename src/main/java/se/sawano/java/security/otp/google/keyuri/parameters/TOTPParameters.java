@@ -16,6 +16,7 @@
 
 package se.sawano.java.security.otp.google.keyuri.parameters;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.apache.commons.lang3.Validate.isTrue;
@@ -34,12 +35,12 @@ public class TOTPParameters {
     }
 
     private void validateForTOTP() {
-        isTrue(get(Period.class).isPresent(), "'Period' is required for type TOTP");
-        isTrue(!get(Counter.class).isPresent(), "'Counter' is not allowed for type TOTP");
+        isTrue(parameters.period().isPresent(), "'Period' is required for type TOTP");
+        isTrue(!parameters.counter().isPresent(), "'Counter' is not allowed for type TOTP");
     }
 
     public Optional<Period> period() {
-        return get(Period.class);
+        return parameters.period();
     }
 
     public Secret secret() {
@@ -47,23 +48,33 @@ public class TOTPParameters {
     }
 
     public Optional<Issuer> issuer() {
-        return get(Issuer.class);
+        return parameters.issuer();
     }
 
     public Optional<Algorithm> algorithm() {
-        return get(Algorithm.class);
+        return parameters.algorithm();
     }
 
     public Optional<Digits> digits() {
-        return get(Digits.class);
+        return parameters.digits();
     }
 
     public String asUriString() {
         return parameters.asUriString();
     }
 
-    private <T extends Parameter> Optional<T> get(final Class<T> clazz) {
-        return parameters.get(clazz);
+    /**
+     * Appends the same query string as {@link #asUriString()} to the given appendable. The cached string is used if
+     * there is one, otherwise the parameters are written straight into the appendable without caching them.
+     *
+     * @param out
+     *         the appendable to write the query to
+     *
+     * @throws IOException
+     *         if the appendable fails
+     */
+    public void appendUriString(final Appendable out) throws IOException {
+        parameters.appendUriString(out);
     }
 
 }
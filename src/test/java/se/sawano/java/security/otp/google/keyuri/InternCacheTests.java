@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InternCacheTests {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final InternCache<StringBuilder> cache = new InternCache<>(value -> {
+        created.incrementAndGet();
+        return new StringBuilder(value);
+    });
+
+    @Test
+    public void should_share_instance_of_trimmed_value() throws Exception {
+        final StringBuilder instance = cache.get("Acme");
+
+        assertSame(instance, cache.get(" Acme "));
+        assertSame(instance, cache.get("Acme\t"));
+        assertEquals("Acme", instance.toString());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void should_cache_value_used_after_cache_has_been_filled() throws Exception {
+        for (int i = 0; i < 10 * InternCache.SIZE; ++i) {
+            cache.get("junk " + i);
+        }
+
+        final StringBuilder instance = cache.get("Acme");
+
+        assertSame(instance, cache.get("Acme"));
+    }
+
+    @Test
+    public void should_not_cache_value_that_factory_rejects() throws Exception {
+        final InternCache<String> validating = new InternCache<>(value -> {
+            throw new IllegalArgumentException(value);
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> validating.get("Acme"));
+        assertThrows(IllegalArgumentException.class, () -> validating.get("Acme"));
+        assertThrows(NullPointerException.class, () -> validating.get(null));
+    }
+}
@@ -19,6 +19,8 @@ package se.sawano.java.security.otp.google.keyuri;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static se.sawano.java.security.otp.google.keyuri.Label.Issuer.issuer;
 
 public class IssuerTests {
@@ -28,4 +30,28 @@ public class IssuerTests {
         assertEquals("My Company", issuer(" My Company   ").value());
     }
 
+    @Test
+    public void should_share_cached_issuer() throws Exception {
+        final Label.Issuer issuer = Label.Issuer.cached(" Shared Company ");
+
+        assertSame(issuer, Label.Issuer.cached(" Shared Company "));
+        assertEquals("Shared Company", issuer.value());
+    }
+
+    @Test
+    public void should_encode_cached_issuer_in_label() throws Exception {
+        final Label label = new Label(Label.AccountName.accountName("john@example.com"), Label.Issuer.cached("My Co"));
+
+        assertEquals("john%40example.com%3AMy%20Co", label.asUriString());
+        final StringBuilder builder = new StringBuilder();
+        label.appendUriString(builder);
+        assertEquals("john%40example.com%3AMy%20Co", builder.toString());
+    }
+
+    @Test
+    public void should_validate_cached_issuer() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> Label.Issuer.cached("My:Co"));
+        assertThrows(IllegalArgumentException.class, () -> Label.Issuer.cached(" "));
+    }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.junit.jupiter.api.Test;
+import se.sawano.java.security.otp.google.keyuri.parameters.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class KeyUriBatchTests {
+
+    private final List<Label.AccountName> accountNames = asList(accountName("john.doe@example.com"), accountName("Åsa Öberg"));
+
+    @Test
+    public void should_create_same_totp_uris_as_key_uri() throws Exception {
+        final KeyUriBatch batch = KeyUriBatch.totpBatch(ParametersBuilder.totpBuilder()
+                                                                         .withAlgorithm(Algorithm.SHA256)
+                                                                         .withDigits(Digits.EIGHT)
+                                                                         .withIssuer(Issuer.issuer("My Co"))
+                                                                         .withPeriod(period(Duration.ofSeconds(30)))
+                                                                         .createTemplate());
+
+        assertSameAsKeyUri(batch);
+        assertEquals("otpauth://totp/john.doe%40example.com%3AMy%20Co?algorithm=SHA256&digits=8&issuer=My%20Co&period=30&secret=NJXWQ3ROMRXWKQDFPBQW24DMMUXGG33N",
+                     batch.generate(accountNames, this::secretOf).get(0));
+    }
+
+    @Test
+    public void should_create_same_hotp_uris_as_key_uri() throws Exception {
+        final KeyUriBatch batch = KeyUriBatch.hotpBatch(ParametersBuilder.hotpBuilder()
+                                                                         .withCounter(counter(0))
+                                                                         .createTemplate());
+
+        assertSameAsKeyUri(batch);
+        assertEquals("otpauth://hotp/john.doe%40example.com?counter=0&secret=NJXWQ3ROMRXWKQDFPBQW24DMMUXGG33N",
+                     batch.generate(accountNames, this::secretOf).get(0));
+    }
+
+    private void assertSameAsKeyUri(final KeyUriBatch batch) {
+        final List<String> keyUris = batch.generate(accountNames, this::secretOf);
+
+        assertEquals(accountNames.size(), keyUris.size());
+        for (int i = 0; i < accountNames.size(); ++i) {
+            final Label.AccountName accountName = accountNames.get(i);
+            assertEquals(batch.keyUri(accountName, secretOf(accountName)).toURI().toString(), keyUris.get(i));
+        }
+    }
+
+    private Secret secretOf(final Label.AccountName accountName) {
+        return secret(accountName.value().getBytes());
+    }
+}
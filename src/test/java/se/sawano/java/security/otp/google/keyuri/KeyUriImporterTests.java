@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static se.sawano.java.security.otp.google.keyuri.KeyUriImporter.keyUriImporter;
+
+public class KeyUriImporterTests {
+
+    private static final String TOTP_URI = "otpauth://totp/alice%3AAcme?issuer=Acme&period=30&secret=GEZDGNBVGY3TQOJQ";
+    private static final String HOTP_URI = "otpauth://hotp/bob?counter=7&secret=GEZDGNBVGY3TQOJQ";
+
+    private final Map<Long, String> keyUris = new ConcurrentHashMap<>();
+    private final Map<Long, String> errors = new ConcurrentHashMap<>();
+    private final KeyUriImporter.Listener listener = new KeyUriImporter.Listener() {
+        @Override
+        public void onKeyUri(final long lineNumber, final KeyUri keyUri) {
+            keyUris.put(lineNumber, keyUri.toURI().toString());
+        }
+
+        @Override
+        public void onError(final long lineNumber, final IllegalArgumentException error) {
+            errors.put(lineNumber, error.getMessage());
+        }
+    };
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.createTempFile("key-uris", ".txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.delete(file);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, KeyUriImporter.DEFAULT_CHUNK_SIZE})
+    public void should_report_each_line_with_its_line_number(final int chunkSize) throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            content.append(TOTP_URI).append('\n')
+                   .append(HOTP_URI).append("\r\n")
+                   .append("\n")
+                   .append("otpauth://totp/invalid").append('\n');
+        }
+        content.append(HOTP_URI);
+        Files.write(file, content.toString().getBytes(UTF_8));
+
+        keyUriImporter(ForkJoinPool.commonPool(), chunkSize).importFile(file, listener);
+
+        assertEquals(201, keyUris.size());
+        assertEquals(100, errors.size());
+        for (long line = 1; line <= 400; line += 4) {
+            assertEquals(TOTP_URI, keyUris.get(line));
+            assertEquals(HOTP_URI, keyUris.get(line + 1));
+            assertTrue(errors.containsKey(line + 3));
+        }
+        assertEquals(HOTP_URI, keyUris.get(401L));
+    }
+
+    @Test
+    public void should_import_labels_in_given_order() throws Exception {
+        Files.write(file, "otpauth://totp/alice%3AAcme?secret=GEZDGNBVGY3TQOJQ".getBytes(UTF_8));
+        final Map<String, String> labels = new ConcurrentHashMap<>();
+
+        final KeyUriImporter importer = keyUriImporter(ForkJoinPool.commonPool(), 10,
+                                                       KeyUriParser.LabelOrder.ACCOUNT_NAME_FIRST);
+
+        importer.importFile(file, new KeyUriImporter.Listener() {
+            @Override
+            public void onKeyUri(final long lineNumber, final KeyUri keyUri) {
+                labels.put(keyUri.label().accountName().value(), keyUri.label().issuer().get().value());
+            }
+
+            @Override
+            public void onError(final long lineNumber, final IllegalArgumentException error) {
+                errors.put(lineNumber, error.getMessage());
+            }
+        });
+
+        assertEquals("Acme", labels.get("alice"));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void should_import_empty_file() throws Exception {
+        keyUriImporter().importFile(file, listener);
+
+        assertTrue(keyUris.isEmpty());
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void should_not_create_with_invalid_chunk_size() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> keyUriImporter(ForkJoinPool.commonPool(), 0));
+    }
+}
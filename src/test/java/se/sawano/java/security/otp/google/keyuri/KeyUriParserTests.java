@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sawano.java.security.otp.google.keyuri.parameters.*;
+
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.Label.Issuer.issuer;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class KeyUriParserTests {
+
+    private static final String TOTP_URI = "otpauth://totp/john.doe%40example.com%3AMy%20Co?algorithm=SHA1&digits=6&issuer=My%20Co&period=30&secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+    private static final String HOTP_URI = "otpauth://hotp/john.doe%40example.com%3AMy%20Co?algorithm=SHA1&counter=42&digits=6&issuer=My%20Co&secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void should_parse_totp_uri() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse(TOTP_URI);
+
+        assertEquals(Type.TOTP, keyUri.type());
+        assertEquals("john.doe@example.com", keyUri.label().accountName().value());
+        assertEquals("My Co", keyUri.label().issuer().get().value());
+        final TOTPParameters parameters = keyUri.totpParameters().get();
+        assertEquals("GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ", parameters.secret().value());
+        assertEquals("My Co", parameters.issuer().get().value());
+        assertEquals(Algorithm.SHA1, parameters.algorithm().get());
+        assertEquals(Digits.SIX, parameters.digits().get());
+        assertEquals(30, parameters.period().get().value());
+        assertEquals(TOTP_URI, keyUri.toURI().toString());
+    }
+
+    @Test
+    public void should_parse_hotp_uri() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse(HOTP_URI);
+
+        assertEquals(Type.HOTP, keyUri.type());
+        assertEquals(42, keyUri.hotpParameters().get().counter().get().value());
+        assertEquals(HOTP_URI, keyUri.toURI().toString());
+    }
+
+    @Test
+    public void should_parse_bytes() throws Exception {
+        final byte[] bytes = ("xx" + HOTP_URI + "yy").getBytes(UTF_8);
+
+        assertEquals(HOTP_URI, KeyUriParser.parse(bytes, 2, bytes.length - 4).toURI().toString());
+    }
+
+    @Test
+    public void should_round_trip_non_ascii_values() throws Exception {
+        final KeyUri keyUri = new KeyUri(new Label(accountName("Åsa Öberg 😀"), issuer("Acme 中文")),
+                                         ParametersBuilder.totpBuilder()
+                                                          .withSecret(secret("12345678901234567890".getBytes()))
+                                                          .withIssuer(Issuer.issuer("Acme 中文"))
+                                                          .withPeriod(period(Duration.ofSeconds(60)))
+                                                          .create());
+        final String uri = keyUri.toURI().toString();
+
+        assertEquals(uri, KeyUriParser.parse(uri).toURI().toString());
+        assertEquals(uri, KeyUriParser.parse(uri.getBytes(UTF_8)).toURI().toString());
+    }
+
+    @Test
+    public void should_accept_raw_non_ascii_characters() throws Exception {
+        final String uri = "otpauth://totp/Acme 中文:Åsa?secret=GEZDGNBVGY3TQOJQ";
+
+        assertEquals("Åsa", KeyUriParser.parse(uri).label().accountName().value());
+        assertEquals("Acme 中文", KeyUriParser.parse(uri.getBytes(UTF_8)).label().issuer().get().value());
+    }
+
+    @Test
+    public void should_read_issuer_first_in_label_by_default() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("otpauth://totp/ACME:john@example.com?secret=GEZDGNBVGY");
+
+        assertEquals("john@example.com", keyUri.label().accountName().value());
+        assertEquals("ACME", keyUri.label().issuer().get().value());
+    }
+
+    @Test
+    public void should_read_account_name_first_in_label_if_asked_to() throws Exception {
+        final String uri = "otpauth://totp/john@example.com:ACME?secret=GEZDGNBVGY";
+
+        final KeyUri keyUri = KeyUriParser.parse(uri, KeyUriParser.LabelOrder.ACCOUNT_NAME_FIRST);
+        final byte[] bytes = uri.getBytes(UTF_8);
+
+        assertEquals("john@example.com", keyUri.label().accountName().value());
+        assertEquals("ACME", keyUri.label().issuer().get().value());
+        assertEquals("john@example.com", KeyUriParser.parse(bytes, 0, bytes.length, KeyUriParser.LabelOrder.ACCOUNT_NAME_FIRST)
+                                                    .label().accountName().value());
+    }
+
+    @Test
+    public void should_accept_issuer_last_in_label_if_equal_to_issuer_parameter() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("otpauth://totp/alice:Acme?secret=GEZDGNBVGY&issuer=Acme");
+
+        assertEquals("alice", keyUri.label().accountName().value());
+        assertEquals("Acme", keyUri.label().issuer().get().value());
+    }
+
+    @Test
+    public void should_accept_issuer_first_in_label_if_equal_to_issuer_parameter() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("otpauth://totp/Acme:alice?secret=GEZDGNBVGY&issuer=Acme");
+
+        assertEquals("alice", keyUri.label().accountName().value());
+        assertEquals("Acme", keyUri.label().issuer().get().value());
+    }
+
+    @Test
+    public void should_be_lenient_with_case_and_padding() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("OTPAUTH://TOTP/alice?secret=gezdgnbvgy%3D%3D%3D%3D%3D%3D&algorithm=sha256");
+
+        assertEquals("GEZDGNBVGY", keyUri.totpParameters().get().secret().value());
+        assertEquals(Algorithm.SHA256, keyUri.totpParameters().get().algorithm().get());
+    }
+
+    @Test
+    public void should_use_default_period_for_totp() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("otpauth://totp/alice?secret=GEZDGNBVGY");
+
+        assertEquals(30, keyUri.totpParameters().get().period().get().value());
+    }
+
+    @Test
+    public void should_ignore_unknown_parameters() throws Exception {
+        final KeyUri keyUri = KeyUriParser.parse("otpauth://hotp/alice?image=http%3A%2F%2Fexample.com&counter=0&secret=GEZDGNBVGY&flag");
+
+        assertEquals("otpauth://hotp/alice?counter=0&secret=GEZDGNBVGY", keyUri.toURI().toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "http://totp/alice?secret=GEZDGNBVGY",
+            "otpauth://totp",
+            "otpauth://xotp/alice?secret=GEZDGNBVGY",
+            "otpauth://totp/alice",
+            "otpauth://totp/alice?secret=GEZDGNBVGY1",
+            "otpauth://totp/alice?secret=",
+            "otpauth://totp/alice?secret=A",
+            "otpauth://totp/alice?secret=GEZDGNBVGYA",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&secret=GEZDGNBVGY",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&digits=7",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&digits=x",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&period=0",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&counter=1",
+            "otpauth://totp/alice?secret=GEZDGNBVGY&algorithm=MD5",
+            "otpauth://totp/alice%2?secret=GEZDGNBVGY",
+            "otpauth://totp/alice%XX?secret=GEZDGNBVGY",
+            "otpauth://totp/a:b:alice?secret=GEZDGNBVGY",
+            "otpauth://totp/Acme:alice?secret=GEZDGNBVGY&issuer=Other",
+            "otpauth://hotp/alice?secret=GEZDGNBVGY",
+            "otpauth://hotp/alice?secret=GEZDGNBVGY&counter=1&period=30",
+    })
+    public void should_not_parse_invalid_uri(final String uri) throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> KeyUriParser.parse(uri));
+    }
+
+    @Test
+    public void should_not_parse_blank_account_name() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> KeyUriParser.parse("otpauth://totp/%20?secret=GEZDGNBVGY"));
+    }
+
+    @Test
+    public void should_parse_what_it_creates() throws Exception {
+        final KeyUri keyUri = new KeyUri(new Label(accountName("bob")), ParametersBuilder.hotpBuilder()
+                                                                                         .withSecret(secret(new byte[]{1, 2, 3}))
+                                                                                         .withAlgorithm(Algorithm.SHA512)
+                                                                                         .withDigits(Digits.EIGHT)
+                                                                                         .withCounter(counter(Long.MAX_VALUE / 10))
+                                                                                         .create());
+
+        assertEquals(keyUri.toURI(), KeyUriParser.parse(keyUri.toURI().toString()).toURI());
+    }
+}
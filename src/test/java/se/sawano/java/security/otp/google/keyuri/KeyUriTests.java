@@ -19,8 +19,14 @@ package se.sawano.java.security.otp.google.keyuri;
 import org.junit.jupiter.api.Test;
 import se.sawano.java.security.otp.google.keyuri.parameters.*;
 
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -47,6 +53,15 @@ public class KeyUriTests {
         assertThat(exception.getMessage(), is("Issuer must be same in Label and parameters"));
     }
 
+    @Test
+    public void should_not_create_hotp_uri_if_issuer_is_different_from_issuer_in_parameters() throws Exception {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            new KeyUri(new Label(accountName("jane.doe"), issuer("My Service")), hotpParametersWithIssuer("My Other Service"));
+        });
+
+        assertThat(exception.getMessage(), is("Issuer must be same in Label and parameters"));
+    }
+
     @Test
     public void should_create_if_issuer_is_equal_to_issuer_in_parameters() throws Exception {
 
@@ -77,6 +92,74 @@ public class KeyUriTests {
                 .toString());
     }
 
+    @Test
+    public void should_write_same_uri_as_to_uri() throws Exception {
+        final KeyUri totpUri = new KeyUri(new Label(accountName("Åsa Öberg"), issuer("Acme 中文")), totpParametersWithIssuer("Acme 中文"));
+        final KeyUri hotpUri = new KeyUri(new Label(accountName("john.doe@example.com")), hotpParametersWithIssuer("Acme"));
+
+        for (final KeyUri keyUri : new KeyUri[]{totpUri, hotpUri}) {
+            final StringBuilder builder = new StringBuilder();
+            keyUri.writeTo(builder);
+            final CharBuffer buffer = CharBuffer.allocate(500);
+            keyUri.writeTo(buffer).flip();
+
+            assertEquals(keyUri.toURI().toString(), builder.toString());
+            assertEquals(keyUri.toURI().toString(), buffer.toString());
+        }
+    }
+
+    @Test
+    public void should_write_same_uri_as_to_uri_in_ascii() throws Exception {
+        final KeyUri keyUri = new KeyUri(new Label(accountName("Åsa Öberg"), issuer("Acme 中文")), totpParametersWithIssuer("Acme 中文"));
+        final byte[] expected = keyUri.toURI().toString().getBytes(StandardCharsets.UTF_8);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        keyUri.writeAsciiTo(out);
+        final ByteBuffer buffer = ByteBuffer.allocate(500);
+        keyUri.writeAsciiTo(buffer);
+
+        assertArrayEquals(expected, out.toByteArray());
+        assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    @Test
+    public void should_reuse_uri_and_uri_string() throws Exception {
+        final KeyUri keyUri = new KeyUri(new Label(accountName("john.doe@example.com"), issuer("My Co")), totpParametersWithIssuer("My Co"));
+
+        final URI uri = keyUri.toURI();
+
+        assertSame(uri, keyUri.toURI());
+        assertSame(keyUri.toUriString(), keyUri.toUriString());
+        assertEquals(uri.toString(), keyUri.toUriString());
+    }
+
+    @Test
+    public void should_not_cache_uri_of_off_heap_secret() throws Exception {
+        final Secret secret = Secret.offHeap("12345678901234567890".getBytes());
+        final KeyUri keyUri = new KeyUri(new Label(accountName("john.doe@example.com")),
+                                         ParametersBuilder.totpBuilder()
+                                                          .withSecret(secret)
+                                                          .withAlgorithm(Algorithm.SHA1)
+                                                          .withDigits(Digits.SIX)
+                                                          .withPeriod(period(Duration.ofSeconds(30)))
+                                                          .create());
+
+        assertEquals("otpauth://totp/john.doe%40example.com?algorithm=SHA1&digits=6&period=30&secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ",
+                     keyUri.toUriString());
+        assertNotSame(keyUri.toURI(), keyUri.toURI());
+
+        secret.destroy();
+
+        assertThrows(IllegalStateException.class, keyUri::toUriString);
+    }
+
+    @Test
+    public void should_fail_to_write_to_too_small_buffer() throws Exception {
+        final KeyUri keyUri = new KeyUri(new Label(accountName("john.doe@example.com")), hotpParametersWithIssuer("Acme"));
+
+        assertThrows(BufferOverflowException.class, () -> keyUri.writeTo(CharBuffer.allocate(20)));
+    }
+
     @Test
     void totp_uri_should_not_contain_hotp_parameters() {
         final TOTPParameters parameters = totpParametersWithIssuer("Acme");
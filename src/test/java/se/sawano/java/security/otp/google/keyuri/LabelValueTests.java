@@ -16,6 +16,7 @@
 
 package se.sawano.java.security.otp.google.keyuri;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -23,6 +24,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.params.provider.Arguments.of;
 import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
 import static se.sawano.java.security.otp.google.keyuri.Label.Issuer.issuer;
@@ -34,7 +36,8 @@ public class LabelValueTests {
                 of(givenAcountName("john.doe@example.com"), andIssuer("My Company"), thenValueShouldBe("john.doe%40example.com%3AMy%20Company")),
                 of(givenAcountName("john.doe@example.com"), andNoIssuer(), thenValueShouldBe("john.doe%40example.com")),
                 of(givenAcountName("John Doe"), andNoIssuer(), thenValueShouldBe("John%20Doe")),
-                of(givenAcountName("John Doe"), andIssuer("My@Company"), thenValueShouldBe("John%20Doe%3AMy%40Company"))
+                of(givenAcountName("John Doe"), andIssuer("My@Company"), thenValueShouldBe("John%20Doe%3AMy%40Company")),
+                of(givenAcountName("Åsa"), andIssuer("Företag"), thenValueShouldBe("%C3%85sa%3AF%C3%B6retag"))
         );
     }
 
@@ -60,6 +63,20 @@ public class LabelValueTests {
         assertEquals(expectedValue, getValue(issuer, accountName));
     }
 
+    @Test
+    public void should_reuse_URI_encoded_label() throws Exception {
+        final Label label = new Label(accountName("john.doe@example.com"), issuer("My Company"));
+        final StringBuilder builder = new StringBuilder();
+        label.appendUriString(builder);
+
+        assertEquals("john.doe%40example.com%3AMy%20Company", builder.toString());
+        assertSame(label.asUriString(), label.asUriString());
+
+        builder.setLength(0);
+        label.appendUriString(builder);
+        assertEquals(label.asUriString(), builder.toString());
+    }
+
     private String getValue(final String issuer, final String accountName) {
         if (issuer == null) {
             return new Label(accountName(accountName)).asUriString();
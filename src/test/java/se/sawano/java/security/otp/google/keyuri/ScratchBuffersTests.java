@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.sawano.java.security.otp.google.keyuri.parameters.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static se.sawano.java.security.otp.google.keyuri.Label.AccountName.accountName;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class ScratchBuffersTests {
+
+    @BeforeEach
+    public void enable() {
+        ScratchBuffers.setEnabled(true);
+        ScratchBuffers.resetStatistics();
+    }
+
+    @AfterEach
+    public void disable() {
+        ScratchBuffers.setEnabled(false);
+        ScratchBuffers.resetStatistics();
+    }
+
+    @Test
+    public void should_reuse_released_builder() throws Exception {
+        final StringBuilder builder = ScratchBuffers.acquire(16);
+        builder.append("secret=ABC");
+        ScratchBuffers.release(builder);
+
+        final StringBuilder reused = ScratchBuffers.acquire(16);
+
+        assertSame(builder, reused);
+        assertEquals(0, reused.length());
+        assertEquals(1, ScratchBuffers.hits());
+        assertEquals(1, ScratchBuffers.misses());
+    }
+
+    @Test
+    public void should_zero_released_builder() throws Exception {
+        final StringBuilder builder = ScratchBuffers.acquire(16);
+        builder.append("secret=ABC");
+        ScratchBuffers.release(builder);
+
+        builder.setLength(10);
+
+        assertEquals("\0\0\0\0\0\0\0\0\0\0", builder.toString());
+    }
+
+    @Test
+    public void should_not_keep_large_builder() throws Exception {
+        final StringBuilder builder = ScratchBuffers.acquire(ScratchBuffers.MAX_RETAINED_CAPACITY + 1);
+        ScratchBuffers.release(builder);
+
+        assertNotSame(builder, ScratchBuffers.acquire(16));
+        assertEquals(0, ScratchBuffers.hits());
+    }
+
+    @Test
+    public void should_not_pool_when_disabled() throws Exception {
+        ScratchBuffers.setEnabled(false);
+
+        final StringBuilder builder = ScratchBuffers.acquire(16);
+        ScratchBuffers.release(builder);
+
+        assertNotSame(builder, ScratchBuffers.acquire(16));
+        assertEquals(0, ScratchBuffers.hits());
+        assertEquals(0, ScratchBuffers.misses());
+    }
+
+    @Test
+    public void should_render_with_pooled_builder() throws Exception {
+        assertEquals("secret=ABC", ScratchBuffers.render(16, out -> out.append("secret=ABC")));
+        assertEquals("issuer=Acme", ScratchBuffers.render(16, out -> out.append("issuer=Acme")));
+
+        assertEquals(1, ScratchBuffers.hits());
+        assertThrows(UncheckedIOException.class, () -> ScratchBuffers.render(16, out -> {
+            throw new IOException("failed");
+        }));
+    }
+
+    @Test
+    public void should_render_same_key_uri_with_pool() throws Exception {
+        final String expected = keyUri().toURI().toString();
+        ScratchBuffers.resetStatistics();
+
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(expected, keyUri().toURI().toString());
+        }
+        assertTrue(ScratchBuffers.hits() > 0);
+    }
+
+    private static KeyUri keyUri() {
+        return new KeyUri(new Label(accountName("john.doe@example.com"), Label.Issuer.issuer("My Co")),
+                          ParametersBuilder.totpBuilder()
+                                           .withSecret(secret("12345678901234567890".getBytes()))
+                                           .withAlgorithm(Algorithm.SHA1)
+                                           .withIssuer(Issuer.issuer("My Co"))
+                                           .withDigits(Digits.SIX)
+                                           .withPeriod(period(Duration.ofSeconds(30)))
+                                           .create());
+    }
+}
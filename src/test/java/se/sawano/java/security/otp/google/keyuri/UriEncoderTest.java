@@ -16,13 +16,19 @@
 
 package se.sawano.java.security.otp.google.keyuri;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.net.URLEncoder;
+import java.nio.CharBuffer;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.params.provider.Arguments.of;
 
 public class UriEncoderTest {
@@ -34,7 +40,12 @@ public class UriEncoderTest {
                 of(whenEncoding("+"), thenResultShouldBe("%2B")),
                 of(whenEncoding("@"), thenResultShouldBe("%40")),
                 of(whenEncoding(":"), thenResultShouldBe("%3A")),
-                of(whenEncoding("abcdABCD"), thenResultShouldBe("abcdABCD"))
+                of(whenEncoding("abcdABCD"), thenResultShouldBe("abcdABCD")),
+                of(whenEncoding("Åsa"), thenResultShouldBe("%C3%85sa")),
+                of(whenEncoding("中文"), thenResultShouldBe("%E4%B8%AD%E6%96%87")),
+                of(whenEncoding("\uD83D\uDE00 ok"), thenResultShouldBe("%F0%9F%98%80%20ok")),
+                of(whenEncoding("Жанна Ω"), thenResultShouldBe("%D0%96%D0%B0%D0%BD%D0%BD%D0%B0%20%CE%A9")),
+                of(whenEncoding("john@例え.jp"), thenResultShouldBe("john%40%E4%BE%8B%E3%81%88.jp"))
         );
     }
 
@@ -53,4 +64,50 @@ public class UriEncoderTest {
 
         assertEquals(expectedResult, result);
     }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void should_encode_to_appendable(final String value, final String expectedResult) throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        final CharBuffer buffer = CharBuffer.allocate(100);
+
+        UriEncoder.encode(value, builder);
+        UriEncoder.encode(value, buffer);
+
+        assertEquals(expectedResult, builder.toString());
+        assertEquals(expectedResult, ((CharBuffer) buffer.flip()).toString());
+    }
+
+    @Test
+    public void should_return_same_instance_if_nothing_needs_encoding() throws Exception {
+        final String value = "john.doe_42~example-co";
+
+        assertSame(value, UriEncoder.encode(value));
+    }
+
+    @Test
+    public void should_encode_long_mixed_values_as_url_encoder() throws Exception {
+        final String characters = "abcXYZ019-._~ @:+/%åЖλ中文한\uD83D\uDE00";
+        final Random random = new Random(3986);
+        for (int length = 1; length < 2000; length += 37) {
+            final StringBuilder value = new StringBuilder();
+            while (value.length() < length) {
+                final int i = random.nextInt(characters.length() - 1);
+                value.append(Character.isHighSurrogate(characters.charAt(i)) ? characters.substring(i, i + 2) : characters.charAt(i));
+            }
+            final String expected = URLEncoder.encode(value.toString(), "UTF-8")
+                                              .replace("+", "%20")
+                                              .replace("*", "%2A")
+                                              .replace("%7E", "~");
+
+            assertEquals(expected, UriEncoder.encode(value.toString()));
+        }
+    }
+
+    @Test
+    public void should_not_encode_malformed_surrogates() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> UriEncoder.encode("ok \uD83D"));
+        assertThrows(IllegalArgumentException.class, () -> UriEncoder.encode("ok \uDE00"));
+        assertThrows(IllegalArgumentException.class, () -> UriEncoder.encode("ok \uD83Dx"));
+    }
 }
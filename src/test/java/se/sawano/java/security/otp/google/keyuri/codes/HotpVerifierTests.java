@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.junit.jupiter.api.Test;
+import se.sawano.java.security.otp.google.keyuri.parameters.HOTPParameters;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static se.sawano.java.security.otp.google.keyuri.codes.HotpVerifier.hotpVerifier;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class HotpVerifierTests {
+
+    /**
+     * The test vectors of RFC 4226, appendix D, for counter 0 to 9.
+     */
+    private static final int[] CODES = {755224, 287082, 359152, 969429, 338314, 254676, 287922, 162583, 399871, 520489};
+
+    @Test
+    public void should_verify_rfc_4226_codes() throws Exception {
+        final HotpVerifier verifier = hotpVerifier(parameters(0), 1);
+
+        for (int counter = 0; counter < CODES.length; ++counter) {
+            assertEquals(OptionalLong.of(counter + 1), verifier.verify(counter, CODES[counter]));
+        }
+    }
+
+    @Test
+    public void should_resynchronize_within_window() throws Exception {
+        final HotpVerifier verifier = hotpVerifier(parameters(2), 5);
+
+        assertEquals(OptionalLong.of(3), verifier.verify(CODES[2]));
+        assertEquals(OptionalLong.of(7), verifier.verify(CODES[6]));
+        assertEquals(OptionalLong.of(10), verifier.verify(5, CODES[9]));
+    }
+
+    @Test
+    public void should_not_verify_outside_window() throws Exception {
+        final HotpVerifier verifier = hotpVerifier(parameters(2), 5);
+
+        assertEquals(OptionalLong.empty(), verifier.verify(CODES[1]));
+        assertEquals(OptionalLong.empty(), verifier.verify(CODES[7]));
+        assertEquals(OptionalLong.empty(), verifier.verify(-1));
+    }
+
+    @Test
+    public void should_not_create_with_invalid_window() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> hotpVerifier(parameters(0), 0));
+        assertThrows(IllegalArgumentException.class, () -> hotpVerifier(parameters(0), HotpVerifier.MAX_WINDOW + 1));
+    }
+
+    private static HOTPParameters parameters(final long counter) {
+        return ParametersBuilder.hotpBuilder()
+                                .withSecret(secret("12345678901234567890".getBytes()))
+                                .withCounter(counter(counter))
+                                .create();
+    }
+}
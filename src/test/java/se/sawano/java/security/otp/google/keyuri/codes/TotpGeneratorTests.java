@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import se.sawano.java.security.otp.google.keyuri.parameters.Algorithm;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.of;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class TotpGeneratorTests {
+
+    /**
+     * The test vectors of RFC 6238, appendix B.
+     */
+    public static Stream<Arguments> data() {
+        return Stream.of(
+                of(59L, Algorithm.SHA1, 94287082),
+                of(59L, Algorithm.SHA256, 46119246),
+                of(59L, Algorithm.SHA512, 90693936),
+                of(1111111109L, Algorithm.SHA1, 7081804),
+                of(1111111109L, Algorithm.SHA256, 68084774),
+                of(1111111109L, Algorithm.SHA512, 25091201),
+                of(1111111111L, Algorithm.SHA1, 14050471),
+                of(1111111111L, Algorithm.SHA256, 67062674),
+                of(1111111111L, Algorithm.SHA512, 99943326),
+                of(1234567890L, Algorithm.SHA1, 89005924),
+                of(1234567890L, Algorithm.SHA256, 91819424),
+                of(1234567890L, Algorithm.SHA512, 93441116),
+                of(2000000000L, Algorithm.SHA1, 69279037),
+                of(2000000000L, Algorithm.SHA256, 90698825),
+                of(2000000000L, Algorithm.SHA512, 38618901),
+                of(20000000000L, Algorithm.SHA1, 65353130),
+                of(20000000000L, Algorithm.SHA256, 77737706),
+                of(20000000000L, Algorithm.SHA512, 47863826)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void should_generate_rfc_6238_codes(final long epochSecond, final Algorithm algorithm, final int expectedCode) throws Exception {
+        final TotpGenerator generator = TotpGenerator.totpGenerator(parameters(algorithm, Digits.EIGHT));
+
+        assertEquals(expectedCode, generator.generate(epochSecond));
+        assertEquals(expectedCode, generator.generate(Instant.ofEpochSecond(epochSecond)));
+    }
+
+    @Test
+    public void should_default_to_six_digits() throws Exception {
+        final TotpGenerator generator = TotpGenerator.totpGenerator(parameters(Algorithm.SHA1, null));
+
+        assertEquals(6, generator.digits());
+        assertEquals(287082, generator.generate(59));
+    }
+
+    @Test
+    public void should_alternate_between_keys_on_same_thread() throws Exception {
+        final TotpGenerator first = TotpGenerator.totpGenerator(parameters(Algorithm.SHA1, Digits.EIGHT));
+        final TotpGenerator second = TotpGenerator.totpGenerator(ParametersBuilder.totpBuilder()
+                                                                                  .withSecret(secret("another secret".getBytes()))
+                                                                                  .withDigits(Digits.EIGHT)
+                                                                                  .withPeriod(period(Duration.ofSeconds(30)))
+                                                                                  .create());
+
+        final int secondCode = second.generate(59);
+
+        assertEquals(94287082, first.generate(59));
+        assertEquals(secondCode, second.generate(59));
+        assertEquals(94287082, first.generate(59));
+    }
+
+    private static TOTPParameters parameters(final Algorithm algorithm, final Digits digits) {
+        return ParametersBuilder.totpBuilder()
+                                .withSecret(secret(seed(algorithm).getBytes()))
+                                .withAlgorithm(algorithm)
+                                .withDigits(digits)
+                                .withPeriod(period(Duration.ofSeconds(30)))
+                                .create();
+    }
+
+    private static String seed(final Algorithm algorithm) {
+        switch (algorithm) {
+            case SHA256:
+                return "12345678901234567890123456789012";
+            case SHA512:
+                return "1234567890123456789012345678901234567890123456789012345678901234";
+            default:
+                return "12345678901234567890";
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.junit.jupiter.api.Test;
+import se.sawano.java.security.otp.google.keyuri.parameters.Digits;
+import se.sawano.java.security.otp.google.keyuri.parameters.ParametersBuilder;
+import se.sawano.java.security.otp.google.keyuri.parameters.TOTPParameters;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Secret.secret;
+
+public class TotpVerifierTests {
+
+    private static final TOTPParameters PARAMETERS = parameters("12345678901234567890");
+
+    @Test
+    public void should_verify_code_of_current_time_step() throws Exception {
+        final TotpVerifier verifier = TotpVerifier.totpVerifier(PARAMETERS, 0);
+
+        assertTrue(verifier.verify(94287082, 59));
+        assertEquals(OptionalLong.of(1), verifier.verifyTimeStep(94287082, 59));
+        assertFalse(verifier.verify(94287083, 59));
+    }
+
+    @Test
+    public void should_accept_codes_within_skew() throws Exception {
+        final TotpVerifier verifier = TotpVerifier.totpVerifier(PARAMETERS, 1);
+
+        assertEquals(OptionalLong.of(1), verifier.verifyTimeStep(94287082, 59 - 30));
+        assertEquals(OptionalLong.of(1), verifier.verifyTimeStep(94287082, 59 + 30));
+    }
+
+    @Test
+    public void should_reject_codes_outside_skew() throws Exception {
+        final TotpVerifier verifier = TotpVerifier.totpVerifier(PARAMETERS, 1);
+
+        assertEquals(OptionalLong.empty(), verifier.verifyTimeStep(94287082, 59 + 60));
+        assertEquals(OptionalLong.empty(), verifier.verifyTimeStep(7081804, 59));
+    }
+
+    @Test
+    public void should_accept_code_only_once() throws Exception {
+        final TotpVerifier verifier = TotpVerifier.totpVerifier(PARAMETERS, 1);
+        final UsedCodes usedCodes = UsedCodes.usedCodes(100);
+
+        assertTrue(verifier.accept(94287082, 59, usedCodes));
+        assertFalse(verifier.accept(94287082, 59 + 30, usedCodes));
+        assertFalse(TotpVerifier.totpVerifier(PARAMETERS, 1).accept(94287082, 59, usedCodes));
+        assertFalse(verifier.accept(94287083, 59, usedCodes));
+    }
+
+    @Test
+    public void should_verify_batch() throws Exception {
+        final TOTPParameters other = parameters("another secret");
+        final int otherCode = TotpGenerator.totpGenerator(other).generate(1111111109L);
+
+        final boolean[] result = TotpVerifier.verifyAll(Arrays.asList(PARAMETERS, other, PARAMETERS),
+                                                        new int[]{7081804, otherCode, 94287082}, 1, 1111111109L);
+
+        assertArrayEquals(new boolean[]{true, true, false}, result);
+    }
+
+    @Test
+    public void should_require_one_code_per_parameters() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                     () -> TotpVerifier.verifyAll(Arrays.asList(PARAMETERS, PARAMETERS), new int[1], 1, 59));
+    }
+
+    @Test
+    public void should_not_allow_too_large_skew() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> TotpVerifier.totpVerifier(PARAMETERS, TotpVerifier.MAX_SKEW + 1));
+        assertThrows(IllegalArgumentException.class, () -> TotpVerifier.totpVerifier(PARAMETERS, -1));
+    }
+
+    private static TOTPParameters parameters(final String seed) {
+        return ParametersBuilder.totpBuilder()
+                                .withSecret(secret(seed.getBytes()))
+                                .withDigits(Digits.EIGHT)
+                                .withPeriod(period(Duration.ofSeconds(30)))
+                                .create();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.codes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UsedCodesTests {
+
+    @Test
+    public void should_reject_replayed_code() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(100);
+
+        assertTrue(usedCodes.markUsed(1, 10, 360, 300));
+        assertFalse(usedCodes.markUsed(1, 10, 360, 330));
+    }
+
+    @Test
+    public void should_accept_other_keys_and_time_steps() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(100);
+
+        assertTrue(usedCodes.markUsed(1, 10, 360, 300));
+        assertTrue(usedCodes.markUsed(2, 10, 360, 300));
+        assertTrue(usedCodes.markUsed(1, 11, 390, 300));
+    }
+
+    @Test
+    public void should_forget_expired_codes() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(100);
+
+        assertTrue(usedCodes.markUsed(1, 10, 360, 300));
+        assertTrue(usedCodes.markUsed(1, 10, 360, 360));
+    }
+
+    @Test
+    public void should_remember_codes_at_any_time() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(100);
+        final long now = 4_102_444_800L;
+
+        assertTrue(usedCodes.markUsed(1, now / 30, now + 60, now));
+        assertFalse(usedCodes.markUsed(1, now / 30, now + 60, now + 59));
+        assertTrue(usedCodes.markUsed(1, now / 30, now + 60, now + 60));
+    }
+
+    @Test
+    public void should_reject_all_replays_when_filled_to_capacity() throws Exception {
+        for (final int capacity : new int[]{1000, 65_536, 100_000}) {
+            final UsedCodes usedCodes = UsedCodes.usedCodes(capacity);
+            final long[] fingerprints = new Random(capacity).longs(capacity).toArray();
+            for (final long fingerprint : fingerprints) {
+                assertTrue(usedCodes.markUsed(fingerprint, 10, 360, 300));
+            }
+
+            for (final long fingerprint : fingerprints) {
+                assertFalse(usedCodes.markUsed(fingerprint, 10, 360, 330), "Replay accepted at capacity " + capacity);
+            }
+        }
+    }
+
+    @Test
+    public void should_keep_memory_bounded() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(1);
+
+        for (long fingerprint = 0; fingerprint < 100_000; ++fingerprint) {
+            assertTrue(usedCodes.markUsed(fingerprint, 10, 360, 300));
+        }
+        assertFalse(usedCodes.markUsed(99_999, 10, 360, 300));
+    }
+
+    @Test
+    public void should_accept_code_once_when_used_concurrently() throws Exception {
+        final UsedCodes usedCodes = UsedCodes.usedCodes(1000);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                tasks.add(() -> usedCodes.markUsed(42, 10, 360, 300));
+            }
+            int accepted = 0;
+            for (final Future<Boolean> result : executor.invokeAll(tasks)) {
+                accepted += result.get() ? 1 : 0;
+            }
+            assertEquals(1, accepted);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_not_allow_invalid_capacity() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> UsedCodes.usedCodes(0));
+        assertThrows(IllegalArgumentException.class, () -> UsedCodes.usedCodes(UsedCodes.MAX_CAPACITY + 1));
+    }
+}
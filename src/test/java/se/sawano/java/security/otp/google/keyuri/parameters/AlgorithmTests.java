@@ -19,6 +19,7 @@ package se.sawano.java.security.otp.google.keyuri.parameters;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class AlgorithmTests {
 
@@ -29,6 +30,22 @@ public class AlgorithmTests {
         assertEquals("SHA512", Algorithm.SHA512.value());
     }
 
+    @Test
+    public void should_recommend_key_length_of_hash() throws Exception {
+        assertEquals(20, Algorithm.SHA1.keyLength());
+        assertEquals(32, Algorithm.SHA256.keyLength());
+        assertEquals(64, Algorithm.SHA512.keyLength());
+    }
+
+    @Test
+    public void should_reuse_parameter_pair() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        Algorithm.SHA256.appendParameterPair(builder);
+
+        assertEquals("algorithm=SHA256", builder.toString());
+        assertSame(Algorithm.SHA256.parameterPair(), Algorithm.SHA256.parameterPair());
+    }
+
     @Test
     public void should_alert_if_new_enum_is_added() throws Exception {
         assertEquals(3, Algorithm.values().length, "A new enum has been added, don't forget to add new tests");
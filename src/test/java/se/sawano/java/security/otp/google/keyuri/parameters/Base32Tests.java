@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.of;
+
+public class Base32Tests {
+
+    /**
+     * The test vectors of RFC 4648, section 10, without padding.
+     */
+    public static Stream<Arguments> data() {
+        return Stream.of(
+                of("", ""),
+                of("f", "MY"),
+                of("fo", "MZXQ"),
+                of("foo", "MZXW6"),
+                of("foob", "MZXW6YQ"),
+                of("fooba", "MZXW6YTB"),
+                of("foobar", "MZXW6YTBOI")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void should_encode_and_decode_rfc_4648_vectors(final String value, final String expected) throws Exception {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(expected, encodeToChars(bytes));
+        assertEquals(expected, encodeToAppendable(bytes));
+        assertArrayEquals(bytes, decode(expected));
+    }
+
+    @Test
+    public void should_encode_and_decode_same_as_commons_codec() throws Exception {
+        final Random random = new Random(4648);
+        for (int length = 0; length < 100; ++length) {
+            final byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+
+            final String expected = new org.apache.commons.codec.binary.Base32().encodeToString(bytes).replace("=", "");
+            assertEquals(expected, encodeToChars(bytes));
+            assertEquals(expected, encodeToAppendable(bytes));
+            assertArrayEquals(bytes, decode(expected));
+            assertArrayEquals(bytes, decode(expected.toLowerCase()));
+        }
+    }
+
+    @Test
+    public void should_encode_at_offset() throws Exception {
+        final char[] chars = "secret=??".toCharArray();
+
+        assertEquals(9, Base32.encode("xfx".getBytes(StandardCharsets.US_ASCII), 1, 1, chars, 7));
+        assertEquals("secret=MY", new String(chars));
+    }
+
+    @Test
+    public void should_ignore_padding() throws Exception {
+        assertEquals(7, Base32.unpaddedLength("MZXW6YQ="));
+        assertArrayEquals("foob".getBytes(StandardCharsets.US_ASCII), decode("MZXW6YQ="));
+    }
+
+    private static byte[] decode(final String value) {
+        final int length = Base32.unpaddedLength(value);
+        final byte[] bytes = new byte[Base32.decodedLength(length)];
+        assertEquals(bytes.length, Base32.decode(value, length, bytes, 0));
+        return bytes;
+    }
+
+    private static String encodeToChars(final byte[] bytes) {
+        final char[] chars = new char[Base32.encodedLength(bytes.length)];
+        assertEquals(chars.length, Base32.encode(bytes, 0, bytes.length, chars, 0));
+        return new String(chars);
+    }
+
+    private static String encodeToAppendable(final byte[] bytes) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        Base32.encode(ByteBuffer.wrap(bytes), 0, bytes.length, builder);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static se.sawano.java.security.otp.google.keyuri.parameters.Counter.counter;
+
+public class CounterTests {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 9, 10, 42, 99, 100, 1234567890, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE})
+    public void should_append_same_pair_as_parameter_pair(final long value) throws Exception {
+        final StringBuilder builder = new StringBuilder();
+
+        counter(value).appendParameterPair(builder);
+
+        assertEquals("counter=" + value, builder.toString());
+        assertEquals(counter(value).parameterPair(), builder.toString());
+    }
+}
@@ -19,6 +19,7 @@ package se.sawano.java.security.otp.google.keyuri.parameters;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class DigitsTests {
 
@@ -28,6 +29,15 @@ public class DigitsTests {
         assertEquals(8, Digits.EIGHT.value());
     }
 
+    @Test
+    public void should_reuse_parameter_pair() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        Digits.EIGHT.appendParameterPair(builder);
+
+        assertEquals("digits=8", builder.toString());
+        assertSame(Digits.EIGHT.parameterPair(), Digits.EIGHT.parameterPair());
+    }
+
     @Test
     public void should_alert_if_new_enum_is_added() throws Exception {
         assertEquals(2, Digits.values().length, "A new enum has been added, don't forget to add new tests");
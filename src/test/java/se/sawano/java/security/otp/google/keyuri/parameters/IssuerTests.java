@@ -19,6 +19,8 @@ package se.sawano.java.security.otp.google.keyuri.parameters;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static se.sawano.java.security.otp.google.keyuri.parameters.Issuer.issuer;
 
 public class IssuerTests {
@@ -29,4 +31,29 @@ public class IssuerTests {
 
         assertEquals("issuer=My%20Company%20%40%20Home", pair);
     }
+
+    @Test
+    public void should_share_pre_encoded_cached_issuer() throws Exception {
+        final Issuer issuer = Issuer.cached("Shared Company @ Home");
+        final StringBuilder builder = new StringBuilder();
+        issuer.appendParameterPair(builder);
+
+        assertSame(issuer, Issuer.cached("Shared Company @ Home"));
+        assertSame(issuer.parameterPair(), issuer.parameterPair());
+        assertEquals("issuer=Shared%20Company%20%40%20Home", issuer.parameterPair());
+        assertEquals("issuer=Shared%20Company%20%40%20Home", builder.toString());
+    }
+
+    @Test
+    public void should_share_cached_issuer_of_trimmed_value() throws Exception {
+        final Issuer issuer = Issuer.cached("Trimmed Company");
+
+        assertSame(issuer, Issuer.cached(" Trimmed Company "));
+        assertEquals("issuer=Trimmed%20Company", issuer.parameterPair());
+    }
+
+    @Test
+    public void should_validate_cached_issuer() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> Issuer.cached(" "));
+    }
 }
\ No newline at end of file
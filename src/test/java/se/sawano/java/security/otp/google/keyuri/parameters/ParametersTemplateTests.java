@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Daniel Sawano
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package se.sawano.java.security.otp.google.keyuri.parameters;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static se.sawano.java.security.otp.google.keyuri.parameters.TestObjectFactory.secretFromBase32;
+
+public class ParametersTemplateTests {
+
+    @Test
+    public void should_append_same_uri_string_as_parameters_with_secret() throws Exception {
+        final ParametersTemplate<TOTPParameters> template = ParametersBuilder.totpBuilder()
+                                                                             .withIssuer(Issuer.issuer("Example Co"))
+                                                                             .withDigits(Digits.SIX)
+                                                                             .withPeriod(Period.period(Duration.ofSeconds(60)))
+                                                                             .createTemplate();
+        final Secret secret = secretFromBase32("ENJDVNXVNESP7N2VIOHSQG5RVID77N7P");
+        final StringBuilder builder = new StringBuilder();
+
+        template.appendUriString(secret, builder);
+
+        assertEquals(template.withSecret(secret).asUriString(), builder.toString());
+        assertEquals("?digits=6&issuer=Example%20Co&period=60&secret=ENJDVNXVNESP7N2VIOHSQG5RVID77N7P", builder.toString());
+    }
+
+    @Test
+    public void should_not_allow_secret_in_template() throws Exception {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            ParametersBuilder.hotpBuilder()
+                             .withSecret(secretFromBase32("ENJDVNXVNESP7N2VIOHSQG5RVID77N7P"))
+                             .withCounter(Counter.counter(1))
+                             .createTemplate();
+        });
+
+        assertThat(exception.getMessage(), is("Secret is not allowed in a template"));
+    }
+
+    @Test
+    public void should_require_period_in_totp_template() throws Exception {
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            ParametersBuilder.totpBuilder().createTemplate();
+        });
+
+        assertThat(exception.getMessage(), is("'Period' is required for type TOTP"));
+    }
+}
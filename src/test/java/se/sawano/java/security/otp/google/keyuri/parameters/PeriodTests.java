@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 
 import static java.time.Duration.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static se.sawano.java.security.otp.google.keyuri.parameters.Period.period;
 
 public class PeriodTests {
@@ -37,4 +38,14 @@ public class PeriodTests {
 
         assertEquals("period=30", pair);
     }
+
+    @Test
+    public void should_reuse_parameter_pair() throws Exception {
+        final Period period = period(ofSeconds(30));
+        final StringBuilder builder = new StringBuilder();
+        period.appendParameterPair(builder);
+
+        assertEquals("period=30", builder.toString());
+        assertSame(period.parameterPair(), period.parameterPair());
+    }
 }
\ No newline at end of file
@@ -18,7 +18,17 @@ package se.sawano.java.security.otp.google.keyuri.parameters;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.security.auth.DestroyFailedException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static se.sawano.java.security.otp.google.keyuri.Assertions.assertNotReadable;
 import static se.sawano.java.security.otp.google.keyuri.Assertions.assertNotWritable;
 
@@ -41,6 +51,183 @@ public class SecretTests {
         assertEquals("secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ", pair);
     }
 
+    @Test
+    public void should_reuse_parameter_pair() throws Exception {
+        final Secret secret = secret("12345678901234567890");
+
+        assertSame(secret.parameterPair(), secret.parameterPair());
+    }
+
+    @Test
+    public void should_return_key_bytes() throws Exception {
+        final Secret secret = secret("12345678901234567890");
+
+        assertEquals(20, secret.keyLength());
+        assertArrayEquals("12345678901234567890".getBytes(), secret.keyBytes());
+    }
+
+    @Test
+    public void should_write_key_bytes() throws Exception {
+        final byte[] dest = new byte[8];
+
+        assertEquals(6, secret("123456").writeKeyBytes(dest));
+        assertArrayEquals(new byte[]{'1', '2', '3', '4', '5', '6', 0, 0}, dest);
+    }
+
+    @Test
+    public void should_not_write_key_bytes_to_too_small_array() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> secret("123456").writeKeyBytes(new byte[5]));
+    }
+
+    @Test
+    public void should_create_secret_from_padded_lower_case_base32() throws Exception {
+        final Secret secret = Secret.fromBase32("gezdgnbvgy======");
+
+        assertEquals("GEZDGNBVGY", secret.value());
+        assertArrayEquals("123456".getBytes(), secret.keyBytes());
+    }
+
+    @Test
+    public void should_not_create_secret_from_invalid_base32() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZDGNBVG1"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZD=GNBVGY"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZDGNBVGÅ"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("===="));
+    }
+
+    @Test
+    public void should_not_create_secret_from_incomplete_base32() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("A"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZ"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZDGN"));
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQA"));
+    }
+
+    @Test
+    public void should_not_create_secret_from_base32_with_leftover_bits() throws Exception {
+        assertEquals("MY", Secret.fromBase32("MY").value());
+        assertThrows(IllegalArgumentException.class, () -> Secret.fromBase32("MZ"));
+    }
+
+    @Test
+    public void should_keep_off_heap_secret_same_as_heap_secret() throws Exception {
+        final Secret secret = Secret.offHeap("12345678901234567890".getBytes());
+        try {
+            final StringBuilder pair = new StringBuilder();
+            secret.appendParameterPair(pair);
+
+            assertEquals("GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ", secret.value());
+            assertEquals("secret=GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ", pair.toString());
+            assertEquals(20, secret.keyLength());
+            assertArrayEquals("12345678901234567890".getBytes(), secret.keyBytes());
+        } finally {
+            secret.destroy();
+        }
+    }
+
+    @Test
+    public void should_not_use_destroyed_secret() throws Exception {
+        final Secret secret = Secret.offHeap("123456".getBytes());
+
+        assertFalse(secret.isDestroyed());
+        secret.destroy();
+        secret.destroy();
+
+        assertTrue(secret.isDestroyed());
+        assertThrows(IllegalStateException.class, secret::value);
+        assertThrows(IllegalStateException.class, secret::keyBytes);
+        assertThrows(IllegalStateException.class, () -> secret.appendParameterPair(new StringBuilder()));
+    }
+
+    @Test
+    public void should_zero_and_reuse_memory_of_destroyed_secret() throws Exception {
+        final SecretSlab slab = new SecretSlab(6, 64);
+        final int slot = slab.allocate();
+        slab.chunk(slot).put(slab.offset(slot), (byte) 42);
+
+        slab.free(slot);
+
+        assertEquals(slot, slab.allocate());
+        assertEquals(0, slab.chunk(slot).get(slab.offset(slot)));
+        assertFalse(slot == slab.allocate());
+    }
+
+    @Test
+    public void should_reuse_lowest_free_slot_across_chunks() throws Exception {
+        final SecretSlab slab = new SecretSlab(6, 64);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i, slab.allocate());
+        }
+
+        slab.free(70);
+        slab.free(3);
+
+        assertEquals(3, slab.allocate());
+        assertEquals(70, slab.allocate());
+        assertEquals(100, slab.allocate());
+        assertEquals(slab.offset(10), slab.offset(0));
+        assertFalse(slab.chunk(10) == slab.chunk(0));
+    }
+
+    @Test
+    public void should_free_slot_once() throws Exception {
+        final SecretSlab slab = new SecretSlab(6, 64);
+        final int slot = slab.allocate();
+
+        slab.free(slot);
+
+        assertThrows(IllegalArgumentException.class, () -> slab.free(slot));
+        assertThrows(IllegalArgumentException.class, () -> slab.free(1));
+    }
+
+    @Test
+    public void should_not_destroy_heap_secret() throws Exception {
+        final Secret secret = secret("123456");
+
+        assertThrows(DestroyFailedException.class, secret::destroy);
+        secret.close();
+
+        assertFalse(secret.isDestroyed());
+        assertEquals("GEZDGNBVGY", secret.value());
+    }
+
+    @Test
+    public void should_destroy_off_heap_secret_when_closed() throws Exception {
+        final Secret closed;
+        try (final Secret secret = Secret.offHeap("123456".getBytes())) {
+            assertEquals("GEZDGNBVGY", secret.value());
+            closed = secret;
+        }
+
+        assertTrue(closed.isDestroyed());
+        assertThrows(IllegalStateException.class, closed::value);
+    }
+
+    @Test
+    public void should_generate_secret_with_key_length_of_algorithm() throws Exception {
+        assertEquals(20, Secret.generate(Algorithm.SHA1).keyLength());
+        assertEquals(32, Secret.generate(Algorithm.SHA256).keyLength());
+        assertEquals(64, Secret.generate(Algorithm.SHA512).keyLength());
+    }
+
+    @Test
+    public void should_generate_many_unique_secrets() throws Exception {
+        final List<Secret> secrets = Secret.generate(1000, Algorithm.SHA256);
+
+        final Set<String> values = new HashSet<>();
+        for (final Secret secret : secrets) {
+            assertEquals(32, secret.keyLength());
+            values.add(secret.value());
+        }
+        assertEquals(1000, values.size());
+    }
+
+    @Test
+    public void should_generate_no_secrets() throws Exception {
+        assertTrue(Secret.generate(0, Algorithm.SHA1).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> Secret.generate(-1, Algorithm.SHA1));
+    }
+
     @Test
     public void should_throw_unsupported_operation_exception_on_serialization() throws Exception {
         assertNotWritable(secret("12345678901234567890"));
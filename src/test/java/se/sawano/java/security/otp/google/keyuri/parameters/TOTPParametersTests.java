@@ -48,6 +48,39 @@ public class TOTPParametersTests {
         assertEquals("?algorithm=SHA1&digits=6&issuer=Example%20Co&period=30&secret=ENJDVNXVNESP7N2VIOHSQG5RVID77N7P", parameters.asUriString());
     }
 
+    @Test
+    public void should_reuse_URI_encoded_string() throws Exception {
+        final TOTPParameters parameters = parametersForTotp().create();
+
+        assertSame(parameters.asUriString(), parameters.asUriString());
+    }
+
+    @Test
+    public void should_append_same_string_before_and_after_caching() throws Exception {
+        final TOTPParameters parameters = parametersForTotp().create();
+        final StringBuilder builder = new StringBuilder();
+        parameters.appendUriString(builder);
+
+        assertEquals(parameters.asUriString(), builder.toString());
+
+        builder.setLength(0);
+        parameters.appendUriString(builder);
+        assertEquals(parameters.asUriString(), builder.toString());
+    }
+
+    @Test
+    public void should_write_off_heap_secret_without_caching_it() throws Exception {
+        try (final Secret secret = Secret.offHeap(secret().keyBytes())) {
+            final TOTPParameters parameters = parametersForTotp().withSecret(secret).create();
+            final StringBuilder builder = new StringBuilder();
+            parameters.appendUriString(builder);
+
+            assertEquals("?algorithm=SHA1&digits=6&issuer=Example%20Co&period=30&secret=ENJDVNXVNESP7N2VIOHSQG5RVID77N7P", builder.toString());
+            assertEquals(builder.toString(), parameters.asUriString());
+            assertNotSame(parameters.asUriString(), parameters.asUriString());
+        }
+    }
+
     private ParametersBuilder.TotpParametersBuilder parametersWithoutPeriod() {
         return completeBuilder()
                 .withPeriod(null);